@@ -3,9 +3,14 @@ package jp.vmi.html.result;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -15,6 +20,7 @@ import org.slf4j.LoggerFactory;
 import com.floreysoft.jmte.AnnotationProcessor;
 import com.floreysoft.jmte.Engine;
 import com.floreysoft.jmte.TemplateContext;
+import com.floreysoft.jmte.template.Template;
 import com.floreysoft.jmte.token.AnnotationToken;
 
 import jp.vmi.html.result.TestSuiteTree.Node;
@@ -25,6 +31,8 @@ import jp.vmi.selenium.selenese.command.ICommand;
 import jp.vmi.selenium.selenese.result.CommandResult;
 import jp.vmi.selenium.selenese.result.CommandResultList;
 import jp.vmi.selenium.selenese.result.Result;
+import jp.vmi.selenium.selenese.result.Result.Level;
+import jp.vmi.selenium.selenese.utils.ReportPipeline;
 import jp.vmi.selenium.selenese.utils.SystemInformation;
 
 /**
@@ -54,9 +62,35 @@ public class HtmlResult {
         }
     }
 
+    // JMTE engine is not thread-safe, so it is created for each thread rendering results.
+    private class TemplateRenderer {
+
+        private final Engine engine = createEngine();
+        private final Map<String, Template> compiledTemplates = new HashMap<String, Template>();
+
+        private String render(String filename, Map<String, Object> model) {
+            Template template = compiledTemplates.get(filename);
+            if (template == null) {
+                template = engine.getTemplate(getTemplate(filename));
+                compiledTemplates.put(filename, template);
+            }
+            return template.transform(model, Locale.getDefault());
+        }
+    }
+
     private String[] commandLineArgs = null;
     private String htmlResultDir = null;
-    private Engine engine = null;
+    private ReportPipeline reportPipeline = null;
+
+    // filename -> loaded template.
+    private final Map<String, String> templates = new ConcurrentHashMap<String, String>();
+
+    private final ThreadLocal<TemplateRenderer> templateRenderer = new ThreadLocal<TemplateRenderer>() {
+        @Override
+        protected TemplateRenderer initialValue() {
+            return new TemplateRenderer();
+        }
+    };
 
     private final TestSuiteTree tree = new TestSuiteTree();
 
@@ -87,42 +121,97 @@ public class HtmlResult {
         this.htmlResultDir = dir;
     }
 
+    /**
+     * Set pipeline for writing HTML results in background.
+     *
+     * @param reportPipeline report pipeline, or null if HTML results are written synchronously.
+     */
+    public void setReportPipeline(ReportPipeline reportPipeline) {
+        this.reportPipeline = reportPipeline;
+    }
+
     private String getTemplate(String filename) {
+        String template = templates.get(filename);
+        if (template != null)
+            return template;
         InputStream is = null;
         try {
             is = getClass().getResourceAsStream(filename);
-            return IOUtils.toString(is);
+            template = IOUtils.toString(is);
         } catch (IOException e) {
             throw new RuntimeException(e);
         } finally {
             IOUtils.closeQuietly(is);
         }
+        templates.put(filename, template);
+        return template;
     }
 
-    private Engine getEngine() {
-        if (engine == null) {
-            engine = Engine.createCompilingEngine();
-            engine.registerNamedRenderer(new HtmlEscapeRenderer());
-            engine.registerNamedRenderer(new LogRenderer(this));
-            engine.registerNamedRenderer(new IndexRenderer());
-            engine.registerNamedRenderer(new RelativePathRenderer(this));
-            engine.registerNamedRenderer(new NumberRenderer());
-            engine.registerNamedRenderer(new TimeRenderer());
-            engine.registerNamedRenderer(new StringRenderer());
-            engine.registerRenderer(Result.class, new ResultRenderer());
-            engine.registerRenderer(Node.class, new NodeRenderer(engine, getTemplate("index-node.html")));
-            engine.registerAnnotationProcessor(new AnnoCommandResults());
-        }
+    /**
+     * Create template engine.
+     *
+     * @return template engine.
+     */
+    Engine createEngine() {
+        Engine engine = Engine.createCompilingEngine();
+        engine.registerNamedRenderer(new HtmlEscapeRenderer());
+        engine.registerNamedRenderer(new LogRenderer(this));
+        engine.registerNamedRenderer(new IndexRenderer());
+        engine.registerNamedRenderer(new RelativePathRenderer(this));
+        engine.registerNamedRenderer(new NumberRenderer());
+        engine.registerNamedRenderer(new TimeRenderer());
+        engine.registerNamedRenderer(new StringRenderer());
+        engine.registerRenderer(Result.class, new ResultRenderer());
+        engine.registerRenderer(Node.class, new NodeRenderer(engine, getTemplate("index-node.html")));
+        engine.registerAnnotationProcessor(new AnnoCommandResults());
         return engine;
     }
 
+    /**
+     * Render template with model.
+     * <p>
+     * Loaded and compiled templates are reused for the lifetime of this instance.
+     * </p>
+     *
+     * @param filename filename of template.
+     * @param model model.
+     * @return rendered string.
+     */
+    String render(String filename, Map<String, Object> model) {
+        return templateRenderer.get().render(filename, model);
+    }
+
+    /**
+     * Create model for rendering result of test-suite.
+     *
+     * @param testSuite test-suite instance.
+     * @param summary test-suite summary.
+     * @return model.
+     */
+    Map<String, Object> createModel(TestSuite testSuite, TestSuiteSummary summary) {
+        Map<String, Object> model = new HashMap<String, Object>();
+        model.put("title", testSuite.getName() + " results");
+        model.put("sysInfo", SystemInformation.getInstance());
+        model.put("testSuite", testSuite);
+        // copied because the model may be rendered after the runner has moved on.
+        model.put("seleneseList", Collections.unmodifiableList(new ArrayList<Selenese>(testSuite.getSeleneseList())));
+        model.put("numTestTotal", summary.numTestTotal);
+        model.put("numTestPasses", summary.numTestPasses);
+        model.put("numTestFailures", summary.numTestFailures);
+        model.put("numCommandPasses", summary.numCommandPasses);
+        model.put("numCommandFailures", summary.numCommandFailures);
+        model.put("numCommandErrors", summary.numCommandErrors);
+        model.put("commandLine", commandLineArgs);
+        return model;
+    }
+
     /**
      * Generate HTML result.
      *
      * @param testSuite test-suite instance.
      * @return test-suite summary.
      */
-    public TestSuiteSummary generate(TestSuite testSuite) {
+    public TestSuiteSummary generate(final TestSuite testSuite) {
         if (htmlResultDir == null)
             return null;
         TestSuiteSummary summary = tree.getSummary(testSuite);
@@ -157,55 +246,86 @@ public class HtmlResult {
                     summary.numTestFailures++;
                     break;
                 }
-                for (ICommand command : testCase.getCommandList()) {
-                    switch (command.getResult().getLevel()) {
-                    case UNEXECUTED:
-                        // no count
-                        break;
-                    case SUCCESS:
-                    case WARNING:
-                        summary.numCommandPasses++;
-                        break;
-                    case FAILURE:
-                        summary.numCommandFailures++;
-                        break;
-                    case ERROR:
-                        summary.numCommandErrors++;
-                        break;
-                    }
-                }
+                CommandResultList cresultList = testCase.getResultList();
+                summary.numCommandPasses += cresultList.getCommandCount(Level.SUCCESS) + cresultList.getCommandCount(Level.WARNING);
+                summary.numCommandFailures += cresultList.getCommandCount(Level.FAILURE);
+                summary.numCommandErrors += cresultList.getCommandCount(Level.ERROR);
                 break;
             }
         }
-        Map<String, Object> model = new HashMap<String, Object>();
-        model.put("title", testSuite.getName() + " results");
-        model.put("sysInfo", SystemInformation.getInstance());
-        model.put("testSuite", testSuite);
-        model.put("seleneseList", seleneseList);
-        model.put("numTestTotal", summary.numTestTotal);
-        model.put("numTestPasses", summary.numTestPasses);
-        model.put("numTestFailures", summary.numTestFailures);
-        model.put("numCommandPasses", summary.numCommandPasses);
-        model.put("numCommandFailures", summary.numCommandFailures);
-        model.put("numCommandErrors", summary.numCommandErrors);
-        model.put("commandLine", commandLineArgs);
-        String html = getEngine().transform(getTemplate("result.html"), model);
-        File dir = new File(htmlResultDir);
-        File file = new File(dir, "TEST-" + testSuite.getBaseName() + ".html");
-        try {
-            if (!dir.exists()) {
-                dir.mkdirs();
-                log.info("Make the directory for HTML resut: {}", dir);
+        final Map<String, Object> model = createModel(testSuite, summary);
+        final File dir = new File(htmlResultDir);
+        final File file = new File(dir, "TEST-" + testSuite.getBaseName() + ".html");
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                String html;
+                try {
+                    html = render("result.html", model);
+                } finally {
+                    // the logs of the test-cases are not used any longer.
+                    testSuite.closeLogRecorders();
+                }
+                try {
+                    if (!dir.exists()) {
+                        dir.mkdirs();
+                        log.info("Make the directory for HTML resut: {}", dir);
+                    }
+                    FileUtils.write(file, html, "UTF-8");
+                    log.info("Generated HTML result: {}", file);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
             }
-            FileUtils.write(file, html, "UTF-8");
-            log.info("Generated HTML result: {}", file);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        };
+        if (reportPipeline != null)
+            reportPipeline.submit(task);
+        else
+            task.run();
         tree.add(testSuite, summary);
         return summary;
     }
 
+    /**
+     * Get summaries of the test-suite and its descendant test-suites.
+     * <p>
+     * The descendants come first, which is the order for {@link #importSummaries(Map)}.
+     * </p>
+     *
+     * @param testSuite test-suite instance.
+     * @return map of test-suite to summary.
+     */
+    public Map<TestSuite, TestSuiteSummary> getSummaries(TestSuite testSuite) {
+        Map<TestSuite, TestSuiteSummary> summaries = new LinkedHashMap<TestSuite, TestSuiteSummary>();
+        collectSummaries(testSuite, summaries);
+        return summaries;
+    }
+
+    private void collectSummaries(TestSuite testSuite, Map<TestSuite, TestSuiteSummary> summaries) {
+        for (Selenese selenese : testSuite.getSeleneseList())
+            if (selenese.getType() == Selenese.Type.TEST_SUITE && !selenese.isError())
+                collectSummaries((TestSuite) selenese, summaries);
+        TestSuiteSummary summary = tree.getSummary(testSuite);
+        if (summary != null)
+            summaries.put(testSuite, summary);
+    }
+
+    /**
+     * Import test-suite summaries generated by other HtmlResult instance.
+     * <p>
+     * This is used for collecting the results of parallel execution.
+     * The summaries must be taken by {@link #getSummaries(TestSuite)} in the thread which generated them.
+     * The order of imported test-suites is kept in the index.
+     * </p>
+     *
+     * @param summaries map of test-suite to summary.
+     */
+    public void importSummaries(Map<TestSuite, TestSuiteSummary> summaries) {
+        for (Map.Entry<TestSuite, TestSuiteSummary> entry : summaries.entrySet())
+            if (tree.getSummary(entry.getKey()) == null)
+                tree.add(entry.getKey(), entry.getValue());
+    }
+
     /**
      * Generate index for HTML result.
      */
@@ -215,7 +335,7 @@ public class HtmlResult {
         Map<String, Object> model = new HashMap<String, Object>();
         model.put("title", "Index of test-suite results.");
         model.put("tree", tree);
-        String html = getEngine().transform(getTemplate("index.html"), model);
+        String html = render("index.html", model);
         File file = new File(htmlResultDir, "index.html");
         try {
             FileUtils.write(file, html);
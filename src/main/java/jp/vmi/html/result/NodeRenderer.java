@@ -5,6 +5,7 @@ import java.util.Locale;
 
 import com.floreysoft.jmte.Engine;
 import com.floreysoft.jmte.Renderer;
+import com.floreysoft.jmte.template.Template;
 
 import jp.vmi.html.result.TestSuiteTree.Node;
 
@@ -15,6 +16,7 @@ public class NodeRenderer implements Renderer<Node> {
 
     private final Engine engine;
     private final String template;
+    private Template compiled = null; // lazy compilation.
 
     /**
      * Constructor.
@@ -31,6 +33,8 @@ public class NodeRenderer implements Renderer<Node> {
     public String render(Node node, Locale locale) {
         HashMap<String, Object> model = new HashMap<String, Object>();
         model.put("node", node);
-        return engine.transform(template, model);
+        if (compiled == null)
+            compiled = engine.getTemplate(template);
+        return compiled.transform(model, locale);
     }
 }
@@ -1,6 +1,7 @@
 package jp.vmi.junit.result;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -12,6 +13,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import jp.vmi.selenium.selenese.utils.CommandLineUtils;
+import jp.vmi.selenium.selenese.utils.ReportPipeline;
 
 import static jp.vmi.junit.result.ObjectFactory.*;
 
@@ -20,6 +22,9 @@ import static jp.vmi.junit.result.ObjectFactory.*;
  * <p>
  * It expected that this is parsed by Jenkins.
  * </p>
+ * <p>
+ * Each test-case result is written when the test-case ends. (See {@link TestSuiteResultWriter})
+ * </p>
  * @see <a href="https://github.com/jenkinsci/jenkins/blob/master/core/src/main/java/hudson/tasks/junit/SuiteResult.java">Jenkins SuiteResult class.</a>
  * @see <a href="https://github.com/jenkinsci/jenkins/blob/master/core/src/main/java/hudson/tasks/junit/CaseResult.java">Jenkins CaseResult class.</a>
  */
@@ -49,6 +54,13 @@ public final class JUnitResult {
 
     private final Map<Object, TestResult<?>> map = new ConcurrentHashMap<Object, TestResult<?>>();
 
+    // test-case -> parent test-suite.
+    private final Map<ITestCase, ITestSuite> parentMap = new ConcurrentHashMap<ITestCase, ITestSuite>();
+
+    private final Map<ITestSuite, TestSuiteResultWriter> writerMap = new ConcurrentHashMap<ITestSuite, TestSuiteResultWriter>();
+
+    private ReportPipeline reportPipeline = null;
+
     private final FailsafeSummary failsafeSummary = factory.createFailsafeSummary();
 
     private JAXBContext initContext() {
@@ -77,6 +89,15 @@ public final class JUnitResult {
         this.xmlResultDir = dir;
     }
 
+    /**
+     * Set pipeline for writing XML results in background.
+     *
+     * @param reportPipeline report pipeline, or null if XML results are written synchronously.
+     */
+    public void setReportPipeline(ReportPipeline reportPipeline) {
+        this.reportPipeline = reportPipeline;
+    }
+
     protected void mkdirs() {
         File dir = new File(xmlResultDir);
         if (!dir.exists()) {
@@ -97,6 +118,15 @@ public final class JUnitResult {
         if (commandLineArgs != null)
             suiteResult.addProperty("seleneseRunner.args", CommandLineUtils.espaceCommandLineArgs(commandLineArgs));
         map.put(testSuite, suiteResult);
+        if (xmlResultDir != null) {
+            mkdirs();
+            File file = new File(xmlResultDir, "TEST-" + suiteResult.getBaseName() + ".xml");
+            try {
+                writerMap.put(testSuite, new TestSuiteResultWriter(context, file));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
     }
 
     /**
@@ -105,21 +135,30 @@ public final class JUnitResult {
      * @param testSuite test-suite instatnce.
      */
     public void endTestSuite(ITestSuite testSuite) {
-        TestSuiteResult suiteResult = (TestSuiteResult) map.remove(testSuite);
-        if (xmlResultDir == null || suiteResult.getTests() == 0)
+        // the removed result is not modified any longer.
+        final TestSuiteResult suiteResult = (TestSuiteResult) map.remove(testSuite);
+        final TestSuiteResultWriter writer = writerMap.remove(testSuite);
+        if (writer == null)
+            return;
+        if (suiteResult.getTests() == 0) {
+            writer.discard();
             return;
-        try {
-            Marshaller marshaller = context.createMarshaller();
-            marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
-            //marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            mkdirs();
-            File file = new File(xmlResultDir, "TEST-" + suiteResult.getBaseName() + ".xml");
-            marshaller.marshal(suiteResult, file);
-            log.info("Generated JUnit result: {}", file);
-        } catch (JAXBException e) {
-            throw new RuntimeException(e);
         }
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    writer.finish(suiteResult);
+                    log.info("Generated JUnit result: {}", writer.getFile());
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        if (reportPipeline != null)
+            reportPipeline.submit(task);
+        else
+            task.run();
     }
 
     /**
@@ -142,10 +181,8 @@ public final class JUnitResult {
     public void startTestCase(ITestSuite testSuite, ITestCase testCase) {
         TestCaseResult caseResult = factory.createTestCaseResult(testCase);
         map.put(testCase, caseResult);
-        if (testSuite != null) {
-            TestSuiteResult suiteResult = (TestSuiteResult) map.get(testSuite);
-            suiteResult.addTestCaseResult(caseResult);
-        }
+        if (testSuite != null)
+            parentMap.put(testCase, testSuite);
     }
 
     /**
@@ -156,6 +193,15 @@ public final class JUnitResult {
     public void endTestCase(ITestCase testCase) {
         TestCaseResult caseResult = (TestCaseResult) map.remove(testCase);
         failsafeSummary.skipped += caseResult.getSkipped();
+        ITestSuite testSuite = parentMap.remove(testCase);
+        if (testSuite != null) {
+            TestSuiteResult suiteResult = (TestSuiteResult) map.get(testSuite);
+            suiteResult.addTestCaseResult(caseResult);
+            // the test-case result is written here, and is not kept any longer.
+            TestSuiteResultWriter writer = writerMap.get(testSuite);
+            if (writer != null)
+                writer.write(caseResult);
+        }
     }
 
     /**
@@ -197,6 +243,23 @@ public final class JUnitResult {
         failsafeSummary.failures++;
     }
 
+    /**
+     * Merge failsafe summary of other JUnitResult into this.
+     * <p>
+     * This is used for collecting the results of parallel execution.
+     * </p>
+     * @param other other JUnitResult instance.
+     */
+    public void mergeFailsafeSummary(JUnitResult other) {
+        if (other == this)
+            return;
+        FailsafeSummary otherSummary = other.failsafeSummary;
+        failsafeSummary.completed += otherSummary.completed;
+        failsafeSummary.errors += otherSummary.errors;
+        failsafeSummary.failures += otherSummary.failures;
+        failsafeSummary.skipped += otherSummary.skipped;
+    }
+
     /**
      * Generate "failsafe-summary.xml" into XML result directory.
      */
@@ -14,12 +14,14 @@ import static jp.vmi.junit.result.ObjectFactory.*;
 
 /**
  * Result of test-suite.
+ * <p>
+ * Test-case results are not contained. See {@link TestSuiteResultWriter}.
+ * </p>
  */
 @XmlRootElement(name = "testsuite")
 @XmlType(propOrder = {
     "properties",
-    "error",
-    "testCaseResults"
+    "error"
 })
 public class TestSuiteResult extends TestResult<ITestSuite> {
 
@@ -36,8 +38,14 @@ public class TestSuiteResult extends TestResult<ITestSuite> {
     @XmlElement
     private TestCaseResult error;
 
-    @XmlElement(name = "testcase")
-    private final List<TestCaseResult> testCaseResults = new ArrayList<TestCaseResult>();
+    // test-case results are written by TestSuiteResultWriter one by one, and only the counts are kept.
+    private int tests = 0;
+
+    private int failures = 0;
+
+    private int errors = 0;
+
+    private int skipped = 0;
 
     /**
      * Add property.
@@ -62,24 +70,48 @@ public class TestSuiteResult extends TestResult<ITestSuite> {
     }
 
     /**
-     * Add TestCaseResult instance.
+     * Get error when the test class failed to load
      *
-     * @param caseResult TestCaseResult instatnce.
+     * @return error result instance, or null.
+     */
+    TestCaseResult getError() {
+        return error;
+    }
+
+    /**
+     * Get properties.
+     *
+     * @return list of properties. (copied)
      */
-    public void addTestCaseResult(TestCaseResult caseResult) {
-        synchronized (testCaseResults) {
-            testCaseResults.add(caseResult);
+    List<Property> getProperties() {
+        synchronized (properties) {
+            return new ArrayList<Property>(properties);
         }
     }
 
+    /**
+     * Add the result of ended test-case to the counts.
+     * <p>
+     * The TestCaseResult instance itself is not kept.
+     * </p>
+     *
+     * @param caseResult TestCaseResult instatnce.
+     */
+    public synchronized void addTestCaseResult(TestCaseResult caseResult) {
+        tests++;
+        failures += caseResult.getFailures();
+        errors += caseResult.getErrors();
+        skipped += caseResult.getSkipped();
+    }
+
     /**
      * Get test count.
      *
      * @return test count.
      */
     @XmlAttribute
-    public int getTests() {
-        return testCaseResults.size();
+    public synchronized int getTests() {
+        return tests;
     }
 
     /**
@@ -88,10 +120,7 @@ public class TestSuiteResult extends TestResult<ITestSuite> {
      * @return failure count.
      */
     @XmlAttribute
-    public int getFailures() {
-        int failures = 0;
-        for (TestCaseResult caseResult : testCaseResults)
-            failures += caseResult.getFailures();
+    public synchronized int getFailures() {
         return failures;
     }
 
@@ -101,10 +130,7 @@ public class TestSuiteResult extends TestResult<ITestSuite> {
      * @return error count.
      */
     @XmlAttribute
-    public int getErrors() {
-        int errors = 0;
-        for (TestCaseResult caseResult : testCaseResults)
-            errors += caseResult.getErrors();
+    public synchronized int getErrors() {
         return errors;
     }
 
@@ -114,10 +140,7 @@ public class TestSuiteResult extends TestResult<ITestSuite> {
      * @return skipped count.
      */
     @XmlAttribute
-    public int getSkipped() {
-        int skipped = 0;
-        for (TestCaseResult caseResult : testCaseResults)
-            skipped += caseResult.getSkipped();
+    public synchronized int getSkipped() {
         return skipped;
     }
 }
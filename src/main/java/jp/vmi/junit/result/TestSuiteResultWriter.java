@@ -0,0 +1,171 @@
+package jp.vmi.junit.result;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Streaming writer of test-suite result.
+ * <p>
+ * Each test-case result is appended to the sidecar file "TEST-*.xml.part" when the test-case ends,
+ * so no test-case result is kept in memory.
+ * When the test-suite ends, "TEST-*.xml" is written with the header including the aggregate counts,
+ * followed by the content of the sidecar file.
+ * </p>
+ */
+class TestSuiteResultWriter {
+
+    private static final String ENCODING = "UTF-8";
+    private static final String NL = "\n";
+    private static final String INDENT = "    ";
+
+    private static final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+
+    private final File file;
+    private final File partFile;
+    private final Marshaller marshaller;
+    private final OutputStream partOut;
+    private final XMLStreamWriter partWriter;
+
+    /**
+     * Constructor.
+     *
+     * @param context JAXB context.
+     * @param file result file.
+     * @throws IOException I/O error.
+     */
+    TestSuiteResultWriter(JAXBContext context, File file) throws IOException {
+        this.file = file;
+        this.partFile = new File(file.getPath() + ".part");
+        try {
+            this.marshaller = context.createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_ENCODING, ENCODING);
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+        } catch (JAXBException e) {
+            throw new RuntimeException(e);
+        }
+        this.partOut = new BufferedOutputStream(new FileOutputStream(partFile));
+        try {
+            this.partWriter = outputFactory.createXMLStreamWriter(partOut, ENCODING);
+        } catch (XMLStreamException e) {
+            IOUtils.closeQuietly(partOut);
+            FileUtils.deleteQuietly(partFile);
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Get result file.
+     *
+     * @return result file.
+     */
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Append test-case result.
+     *
+     * @param caseResult test-case result.
+     */
+    synchronized void write(TestCaseResult caseResult) {
+        try {
+            partWriter.writeCharacters(INDENT);
+            marshaller.marshal(new JAXBElement<TestCaseResult>(new QName("testcase"), TestCaseResult.class, caseResult), partWriter);
+            partWriter.writeCharacters(NL);
+        } catch (JAXBException e) {
+            throw new RuntimeException(e);
+        } catch (XMLStreamException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void closePart() {
+        try {
+            partWriter.close();
+        } catch (XMLStreamException e) {
+            // no operation.
+        }
+        IOUtils.closeQuietly(partOut);
+    }
+
+    /**
+     * Write result file with the header of test-suite result and appended test-case results.
+     *
+     * @param suiteResult test-suite result.
+     * @throws IOException I/O error.
+     */
+    synchronized void finish(TestSuiteResult suiteResult) throws IOException {
+        try {
+            partWriter.flush();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        } finally {
+            closePart();
+        }
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+        try {
+            XMLStreamWriter writer = outputFactory.createXMLStreamWriter(out, ENCODING);
+            writer.writeStartDocument(ENCODING, "1.0");
+            writer.writeCharacters(NL);
+            writer.writeStartElement("testsuite");
+            writer.writeAttribute("errors", String.valueOf(suiteResult.getErrors()));
+            writer.writeAttribute("failures", String.valueOf(suiteResult.getFailures()));
+            writer.writeAttribute("skipped", String.valueOf(suiteResult.getSkipped()));
+            writer.writeAttribute("tests", String.valueOf(suiteResult.getTests()));
+            writer.writeAttribute("name", suiteResult.getName());
+            writer.writeAttribute("time", suiteResult.getTime());
+            writer.writeAttribute("timestamp", suiteResult.getTimestamp());
+            writer.writeCharacters(NL + INDENT);
+            writer.writeStartElement("properties");
+            for (Property property : suiteResult.getProperties()) {
+                writer.writeCharacters(NL + INDENT + INDENT);
+                writer.writeEmptyElement("property");
+                writer.writeAttribute("name", property.getName());
+                writer.writeAttribute("value", property.getValue());
+            }
+            writer.writeCharacters(NL + INDENT);
+            writer.writeEndElement();
+            TestCaseResult error = suiteResult.getError();
+            if (error != null) {
+                writer.writeCharacters(NL + INDENT);
+                marshaller.marshal(new JAXBElement<TestCaseResult>(new QName("error"), TestCaseResult.class, error), writer);
+            }
+            writer.writeCharacters(NL);
+            writer.flush();
+            FileUtils.copyFile(partFile, out);
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        } catch (JAXBException e) {
+            throw new IOException(e);
+        } finally {
+            IOUtils.closeQuietly(out);
+            FileUtils.deleteQuietly(partFile);
+        }
+    }
+
+    /**
+     * Discard appended test-case results without writing result file.
+     */
+    synchronized void discard() {
+        closePart();
+        FileUtils.deleteQuietly(partFile);
+    }
+}
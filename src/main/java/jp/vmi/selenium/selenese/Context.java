@@ -10,7 +10,9 @@ import jp.vmi.selenium.selenese.command.ICommandFactory;
 import jp.vmi.selenium.selenese.locator.WebDriverElementFinder;
 import jp.vmi.selenium.selenese.log.CookieFilter;
 import jp.vmi.selenium.selenese.log.PageInformation;
+import jp.vmi.selenium.selenese.log.PageInformationMode;
 import jp.vmi.selenium.selenese.subcommand.SubCommandMap;
+import jp.vmi.selenium.selenese.utils.PollingPolicy;
 
 /**
  * Selenese Runner Context.
@@ -154,6 +156,20 @@ public interface Context extends WrapsDriver {
      */
     void setTimeout(int timeout);
 
+    /**
+     * Get polling policy of waiting for conditions.
+     *
+     * @return polling policy.
+     */
+    PollingPolicy getPollingPolicy();
+
+    /**
+     * Get maximum number of log messages of each test-case kept in memory.
+     *
+     * @return buffer size. (0 means unlimited)
+     */
+    int getLogBufferSize();
+
     /**
      * Reset speed as initial speed.
      */
@@ -205,4 +221,49 @@ public interface Context extends WrapsDriver {
      * @param cookieFilter cookie filter.
      */
     void setCookieFilter(CookieFilter cookieFilter);
+
+    /**
+     * Get mode of logging page information.
+     *
+     * @return mode of logging page information.
+     */
+    PageInformationMode getPageInformationMode();
+
+    /**
+     * Set mode of logging page information.
+     *
+     * @param mode mode of logging page information.
+     */
+    void setPageInformationMode(PageInformationMode mode);
+
+    /**
+     * Is page information captured by a single JavaScript call?
+     *
+     * @return true if page information is captured by JavaScript.
+     */
+    boolean isPageInformationByScript();
+
+    /**
+     * Set whether page information is captured by a single JavaScript call.
+     *
+     * @param isPageInformationByScript true if page information is captured by JavaScript.
+     */
+    void setPageInformationByScript(boolean isPageInformationByScript);
+
+    /**
+     * Get interval of commands to log page information in {@link PageInformationMode#ALWAYS} mode.
+     *
+     * @return interval. (1: all commands)
+     */
+    int getPageInformationInterval();
+
+    /**
+     * Set interval of commands to log page information in {@link PageInformationMode#ALWAYS} mode.
+     * <p>
+     * Page information is logged at every N-th executed command in each test-case and all failed commands.
+     * </p>
+     *
+     * @param interval interval. (1: all commands)
+     */
+    void setPageInformationInterval(int interval);
 }
@@ -1,23 +1,105 @@
 package jp.vmi.selenium.selenese;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
 
 import org.apache.commons.io.output.StringBuilderWriter;
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.thoughtworks.selenium.SeleniumException;
 
+import jp.vmi.selenium.selenese.utils.PollingPolicy;
+import jp.vmi.selenium.selenese.utils.Waiter;
+
 /**
  * Evaluator of script including "storedVars" variable.
+ * <p>
+ * "storedVars" is cached in the browser, and only modified variables are transferred in both directions.
+ * If the cache is lost (e.g. by page transition), all variables are transferred again.
+ * </p>
  */
 public class Eval {
 
+    private static final Logger log = LoggerFactory.getLogger(Eval.class);
+
+    // margin of script timeout for the round trip of waitFor().
+    private static final long SCRIPT_TIMEOUT_MARGIN = 1000;
+
+    // browser side cache: {token: ..., version: ..., vars: storedVars}
+    private static final String CACHE = "window.__seleneseRunnerStoredVars";
+
+    private static final Pattern STORED_VARS_RE = Pattern.compile("\\bstoredVars\\b");
+
+    /**
+     * Maximum number of compiled scripts to be cached.
+     */
+    public static final int MAX_CACHE_SIZE = 256;
+
+    private static class CacheKey {
+
+        private final String script;
+        private final String cast;
+
+        private CacheKey(String script, String cast) {
+            this.script = script;
+            this.cast = cast;
+        }
+
+        @Override
+        public int hashCode() {
+            return script.hashCode() * 31 + (cast != null ? cast.hashCode() : 0);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CacheKey))
+                return false;
+            CacheKey other = (CacheKey) obj;
+            return script.equals(other.script) && (cast != null ? cast.equals(other.cast) : other.cast == null);
+        }
+    }
+
+    private static class CompiledScript {
+
+        private final boolean hasStoredVars;
+        private final String wrapped; // cast((function(){mutated script})())
+        private final String baseURL; // base URL embedded in wrapped, or null if not embedded.
+
+        private CompiledScript(boolean hasStoredVars, String wrapped, String baseURL) {
+            this.hasStoredVars = hasStoredVars;
+            this.wrapped = wrapped;
+            this.baseURL = baseURL;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private final Map<CacheKey, CompiledScript> cache = new LinkedHashMap<CacheKey, CompiledScript>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, CompiledScript> eldest) {
+            return size() > MAX_CACHE_SIZE;
+        }
+    };
+    private long cacheHitCount = 0;
+    private long cacheMissCount = 0;
+
     private final SeleneseRunnerMutator mutator;
     private final Context context;
+    private final String token = UUID.randomUUID().toString();
+    private long version = 0;
+    private VarsMap syncedVarsMap = null;
 
     /**
      * Constructor.
@@ -49,43 +131,233 @@ public class Eval {
      * @return result of evaluating script.
      */
     public Object eval(WebDriver driver, String script, String cast) {
+        CompiledScript compiled = compile(script, cast);
+        if (compiled.hasStoredVars)
+            return evalWithStoredVars(driver, compiled);
+        List<?> list = execute(driver, "return [" + compiled.wrapped + "];");
+        return list.isEmpty() ? null : list.get(0);
+    }
+
+    /**
+     * Wait until the result of script becomes true by polling in the browser.
+     * <p>
+     * The script is evaluated repeatedly in the browser by setTimeout at intervals of the polling policy,
+     * so only one round trip is needed.
+     * "storedVars" is transferred at start, and modified variables are transferred back at end.
+     * The result is regarded as false if it is null, undefined, empty string or false.
+     * </p>
+     *
+     * @param driver WebDriver instance.
+     * @param script JavaScript code.
+     * @param timeout timeout. (ms)
+     * @param policy polling policy.
+     * @return true if the result becomes true, false if timed out, or null if polling in the browser is not available.
+     */
+    public Boolean waitFor(WebDriver driver, String script, long timeout, PollingPolicy policy) {
+        if (!(driver instanceof JavascriptExecutor))
+            return null;
+        CompiledScript compiled = compile(script, null);
         VarsMap varsMap = context.getVarsMap();
-        boolean hasStoredVars = script.matches(".*\\bstoredVars\\b.*");
+        List<?> list;
+        long start = System.currentTimeMillis();
+        try {
+            Waiter.setScriptTimeout(driver, timeout + SCRIPT_TIMEOUT_MARGIN);
+            Object result = ((JavascriptExecutor) driver).executeAsyncScript(buildWaitForScript(varsMap, compiled),
+                timeout, policy.getInitialDelay(), policy.getMultiplier(), policy.getMaxDelay());
+            if (!(result instanceof List))
+                return null;
+            list = (List<?>) result;
+        } catch (WebDriverException e) {
+            // e.g. page transition, alert or executeAsyncScript is not supported.
+            log.debug("Failed to wait for condition in browser: {}", e.getMessage());
+            return null;
+        } finally {
+            Waiter.addWaitTime(start);
+            // the long timeout is only for this call.
+            try {
+                Waiter.resetScriptTimeout(driver, policy);
+            } catch (WebDriverException e) {
+                log.debug("Failed to reset script timeout: {}", e.getMessage());
+            }
+        }
+        if (list.get(1) != null)
+            throw new SeleniumException(list.get(1).toString());
+        if (compiled.hasStoredVars) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> changed = new HashMap<String, Object>((Map<String, Object>) list.get(2));
+            for (Map.Entry<String, Object> entry : changed.entrySet())
+                if (entry.getValue() instanceof CharSequence && !(entry.getValue() instanceof String))
+                    entry.setValue(entry.getValue().toString());
+            @SuppressWarnings("unchecked")
+            List<String> removed = (List<String>) list.get(3);
+            varsMap.applySynchronized(changed, removed);
+            // the browser side cache of eval() is not updated.
+            varsMap.markAllModified();
+        }
+        return Boolean.TRUE.equals(list.get(0));
+    }
+
+    private String buildWaitForScript(VarsMap varsMap, CompiledScript compiled) {
+        // arguments: timeout, initial delay, multiplier, max delay, callback.
         StringBuilderWriter writer = new StringBuilderWriter();
-        if (hasStoredVars) {
-            writer.append("return (function(){var storedVars = ");
+        StringBuilder buf = writer.getBuilder();
+        buf.append("var __srcb = arguments[arguments.length - 1];\n")
+            .append("var __srend = new Date().getTime() + arguments[0], __srd = arguments[1], __srm = arguments[2], __srmax = arguments[3];\n")
+            .append("var storedVars = ");
+        if (compiled.hasStoredVars) {
             try {
                 new JSONObject(varsMap).write(writer);
             } catch (JSONException e) {
                 throw new RuntimeException(e);
             }
-            writer.append(";\n");
+        } else {
+            buf.append("{}");
+        }
+        buf.append(";\nvar __sro = {};\nfor (var __srk in storedVars) __sro[__srk] = storedVars[__srk];\n")
+            .append("var __srdone = function(__srr, __sre) {\n")
+            .append("  var __srch = {}, __srrm = [];\n")
+            .append("  for (var __srk in storedVars) { var __srx = storedVars[__srk];")
+            .append(" if (!(__srk in __sro) || __sro[__srk] !== __srx || (__srx !== null && typeof __srx === 'object'))")
+            .append(" __srch[__srk] = __srx; }\n")
+            .append("  for (var __srk in __sro) if (!(__srk in storedVars)) __srrm.push(__srk);\n")
+            .append("  __srcb([__srr, __sre, __srch, __srrm]);\n")
+            .append("};\n")
+            .append("var __srtick = function() {\n")
+            .append("  var __srv;\n")
+            .append("  try { __srv = ").append(compiled.wrapped).append("; }")
+            .append(" catch (e) { __srdone(false, String(e && e.message || e)); return; }\n")
+            .append("  if (__srv !== null && __srv !== undefined && __srv !== '' && __srv !== false) { __srdone(true, null); return; }\n")
+            .append("  var __srrest = __srend - new Date().getTime();\n")
+            .append("  if (__srrest <= 0) { __srdone(false, null); return; }\n")
+            .append("  setTimeout(__srtick, Math.min(__srd, __srrest));\n")
+            .append("  __srd = Math.min(Math.ceil(__srd * __srm), __srmax);\n")
+            .append("};\n")
+            .append("__srtick();");
+        return writer.toString();
+    }
+
+    private CompiledScript compile(String script, String cast) {
+        CacheKey key = new CacheKey(script, cast);
+        CompiledScript compiled = cache.get(key);
+        if (compiled != null && (compiled.baseURL == null || compiled.baseURL.equals(context.getCurrentBaseURL()))) {
+            cacheHitCount++;
+            return compiled;
         }
-        writer.append("return [");
+        cacheMissCount++;
+        StringBuilder buf = new StringBuilder();
         if (cast != null)
-            writer.append(cast);
-        writer.append("((function(){");
-        mutator.mutate(script, writer.getBuilder());
-        writer.append("})())");
-        if (hasStoredVars)
-            writer.append(", storedVars];})();");
-        else
-            writer.append("];");
-        Object result = ((JavascriptExecutor) driver).executeScript(writer.toString());
+            buf.append(cast);
+        buf.append("((function(){");
+        mutator.mutate(script, buf);
+        buf.append("})())");
+        String baseURL = script.contains(SeleneseRunnerMutator.BASE_URL) ? context.getCurrentBaseURL() : null;
+        compiled = new CompiledScript(STORED_VARS_RE.matcher(script).find(), buf.toString(), baseURL);
+        cache.put(key, compiled);
+        return compiled;
+    }
+
+    /**
+     * Get number of evaluations which reused cached compiled script.
+     *
+     * @return cache hit count.
+     */
+    public long getCacheHitCount() {
+        return cacheHitCount;
+    }
+
+    /**
+     * Get number of evaluations which compiled script.
+     *
+     * @return cache miss count.
+     */
+    public long getCacheMissCount() {
+        return cacheMissCount;
+    }
+
+    private static List<?> execute(WebDriver driver, String script) {
+        Object result = ((JavascriptExecutor) driver).executeScript(script);
         if (!(result instanceof List))
-            throw new SeleniumException(result.toString());
-        List<?> list = (List<?>) result;
-        switch (list.size()) {
-        case 0:
-            return null;
-        case 1:
-            return list.get(0);
-        default: // case 2:
+            throw new SeleniumException(String.valueOf(result));
+        return (List<?>) result;
+    }
+
+    private Object evalWithStoredVars(WebDriver driver, CompiledScript compiled) {
+        VarsMap varsMap = context.getVarsMap();
+        if (varsMap != syncedVarsMap) {
+            varsMap.markAllModified();
+            syncedVarsMap = varsMap;
+        }
+        Set<String> modifiedKeys = varsMap.pollModifiedKeys();
+        try {
+            List<?> list = execute(driver, buildScript(varsMap, modifiedKeys, compiled));
+            if (Boolean.FALSE.equals(list.get(0))) {
+                // browser side cache is lost.
+                list = execute(driver, buildScript(varsMap, null, compiled));
+            }
+            version++;
+            @SuppressWarnings("unchecked")
+            Map<String, Object> changed = new HashMap<String, Object>((Map<String, Object>) list.get(2));
+            // some drivers (e.g. HtmlUnitDriver) return a concatenated string as a non-String CharSequence.
+            for (Map.Entry<String, Object> entry : changed.entrySet())
+                if (entry.getValue() instanceof CharSequence && !(entry.getValue() instanceof String))
+                    entry.setValue(entry.getValue().toString());
             @SuppressWarnings("unchecked")
-            Map<String, Object> newVarsMap = (Map<String, Object>) list.get(1);
-            varsMap.clear();
-            varsMap.putAll(newVarsMap);
-            return list.get(0);
+            List<String> removed = (List<String>) list.get(3);
+            varsMap.applySynchronized(changed, removed);
+            return list.get(1);
+        } catch (RuntimeException e) {
+            // browser side cache is discarded on error.
+            varsMap.markAllModified();
+            throw e;
+        }
+    }
+
+    private String buildScript(VarsMap varsMap, Set<String> modifiedKeys, CompiledScript compiled) {
+        // local variables are prefixed by "__sr" not to hide global variables from the script.
+        StringBuilderWriter writer = new StringBuilderWriter();
+        StringBuilder buf = writer.getBuilder();
+        buf.append("return (function(){var storedVars;\n");
+        try {
+            if (modifiedKeys == null) {
+                buf.append("storedVars = ");
+                new JSONObject(varsMap).write(writer);
+                buf.append(";\n");
+            } else {
+                Map<String, Object> modified = new HashMap<String, Object>();
+                List<String> removed = new ArrayList<String>();
+                for (String key : modifiedKeys) {
+                    Object value = varsMap.get(key);
+                    if (value != null)
+                        modified.put(key, value);
+                    else
+                        removed.add(key);
+                }
+                buf.append("var __src = ").append(CACHE).append(";\n")
+                    .append("if (!__src || __src.token !== '").append(token)
+                    .append("' || __src.version !== ").append(String.valueOf(version)).append(") return [false];\n")
+                    .append("storedVars = __src.vars;\n")
+                    .append("var __srm = ");
+                new JSONObject(modified).write(writer);
+                buf.append(";\nfor (var __srk in __srm) storedVars[__srk] = __srm[__srk];\n")
+                    .append("var __srr = ");
+                new JSONArray(removed).write(writer);
+                buf.append(";\nfor (var __sri = 0; __sri < __srr.length; __sri++) delete storedVars[__srr[__sri]];\n");
+            }
+        } catch (JSONException e) {
+            throw new RuntimeException(e);
         }
+        buf.append(CACHE).append(" = null;\n")
+            .append("var __sro = {};\nfor (var __srk in storedVars) __sro[__srk] = storedVars[__srk];\n")
+            .append("var __srv = ").append(compiled.wrapped).append(";\n")
+            // objects may be modified in place, so they are always transferred.
+            .append("var __srch = {}, __srrm = [];\n")
+            .append("for (var __srk in storedVars) { var __srx = storedVars[__srk];")
+            .append(" if (!(__srk in __sro) || __sro[__srk] !== __srx || (__srx !== null && typeof __srx === 'object'))")
+            .append(" __srch[__srk] = __srx; }\n")
+            .append("for (var __srk in __sro) if (!(__srk in storedVars)) __srrm.push(__srk);\n")
+            .append(CACHE).append(" = {token: '").append(token).append("', version: ").append(String.valueOf(version + 1))
+            .append(", vars: storedVars};\n")
+            .append("return [true, __srv, __srch, __srrm];})();");
+        return writer.toString();
     }
 }
@@ -3,6 +3,8 @@ package jp.vmi.selenium.selenese;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 import org.apache.commons.io.IOUtils;
@@ -17,11 +19,14 @@ import jp.vmi.selenium.selenese.config.IConfig;
 import jp.vmi.selenium.selenese.config.SeleneseRunnerOptions;
 import jp.vmi.selenium.selenese.log.CookieFilter;
 import jp.vmi.selenium.selenese.log.CookieFilter.FilterType;
+import jp.vmi.selenium.selenese.log.PageInformationMode;
 import jp.vmi.selenium.selenese.result.Result;
 import jp.vmi.selenium.selenese.utils.LoggerUtils;
+import jp.vmi.selenium.selenese.utils.PollingPolicy;
 import jp.vmi.selenium.webdriver.DriverOptions;
 import jp.vmi.selenium.webdriver.DriverOptions.DriverOption;
 import jp.vmi.selenium.webdriver.WebDriverManager;
+import jp.vmi.selenium.webdriver.WebDriverPreparator;
 
 import static jp.vmi.selenium.selenese.config.SeleneseRunnerOptions.*;
 
@@ -81,11 +86,39 @@ public class Main {
             String[] filenames = config.getArgs();
             if (filenames.length == 0)
                 help();
+            int parallel = NumberUtils.toInt(config.getOptionValue(PARALLEL, DEFAULT_PARALLEL));
+            if (parallel <= 0)
+                throw new IllegalArgumentException("Invalid parallel value. (" + config.getOptionValue(PARALLEL) + ")");
             log.info("Start: " + PROG_TITLE + " {}", getVersion());
             Runner runner = new Runner();
             runner.setCommandLineArgs(args);
-            setupRunner(runner, config, filenames);
-            Result totalResult = runner.run(filenames);
+            Result totalResult;
+            if (parallel > 1 && filenames.length > 1) {
+                List<Runner> workers = new ArrayList<Runner>();
+                for (int i = 0; i < parallel && i < filenames.length; i++) {
+                    Runner worker = new Runner();
+                    worker.setCommandLineArgs(args);
+                    setupRunner(worker, config, filenames);
+                    workers.add(worker);
+                }
+                if (config.hasOption(XML_RESULT))
+                    runner.setJUnitResultDir(config.getOptionValue(XML_RESULT));
+                if (config.hasOption(HTML_RESULT))
+                    runner.setHtmlResultDir(config.getOptionValue(HTML_RESULT));
+                log.info("Parallel execution: {} workers", workers.size());
+                try {
+                    totalResult = runner.runInParallel(workers, filenames);
+                } finally {
+                    for (Runner worker : workers) {
+                        WebDriverPreparator preparator = worker.getWebDriverPreparator();
+                        if (preparator instanceof WebDriverManager)
+                            ((WebDriverManager) preparator).quitDriverAndPool();
+                    }
+                }
+            } else {
+                setupRunner(runner, config, filenames);
+                totalResult = runner.run(filenames);
+            }
             runner.finish();
             if (exitStrictly)
                 exitCode = totalResult.getLevel().strictExitCode;
@@ -122,6 +155,14 @@ public class Main {
         WebDriverManager manager = WebDriverManager.newInstance();
         manager.setWebDriverFactory(driverName);
         manager.setDriverOptions(driverOptions);
+        if (config.hasOption(DRIVER_POOL))
+            setupDriverPool(manager, config.getOptionValue(DRIVER_POOL));
+        if (config.hasOption(LIVENESS_WINDOW)) {
+            long livenessWindow = NumberUtils.toLong(config.getOptionValue(LIVENESS_WINDOW), -1);
+            if (livenessWindow < 0)
+                throw new IllegalArgumentException("Invalid liveness window value. (" + config.getOptionValue(LIVENESS_WINDOW) + ")");
+            manager.setLivenessWindow(livenessWindow);
+        }
         if (config.hasOption(COMMAND_FACTORY)) {
             String factoryName = config.getOptionValue(COMMAND_FACTORY);
             ICommandFactory factory;
@@ -172,10 +213,42 @@ public class Main {
             String pattern = cookieFilter.substring(1);
             runner.setCookieFilter(new CookieFilter(filterType, pattern));
         }
+        if (config.hasOption(PAGE_INFO))
+            runner.setPageInformationMode(PageInformationMode.lookup(config.getOptionValue(PAGE_INFO)));
+        if (config.getOptionValueAsBoolean(PAGE_INFO_BY_SCRIPT))
+            runner.setPageInformationByScript(true);
+        if (config.hasOption(PAGE_INFO_INTERVAL)) {
+            int interval = NumberUtils.toInt(config.getOptionValue(PAGE_INFO_INTERVAL), -1);
+            if (interval <= 0)
+                throw new IllegalArgumentException("Invalid page information interval value. (" + config.getOptionValue(PAGE_INFO_INTERVAL) + ")");
+            runner.setPageInformationInterval(interval);
+        }
+        if (config.getOptionValueAsBoolean(ELEMENT_CACHE))
+            runner.getElementFinder().setCacheEnabled(true);
+        if (config.hasOption(FRAME_SEARCH_DEPTH)) {
+            int depth = NumberUtils.toInt(config.getOptionValue(FRAME_SEARCH_DEPTH), -1);
+            if (depth < 0)
+                throw new IllegalArgumentException("Invalid frame search depth value. (" + config.getOptionValue(FRAME_SEARCH_DEPTH) + ")");
+            runner.getElementFinder().setFrameSearchDepth(depth);
+        }
+        if (config.hasOption(POLLING_POLICY))
+            runner.setPollingPolicy(PollingPolicy.parse(config.getOptionValue(POLLING_POLICY)));
         if (config.hasOption(XML_RESULT))
             runner.setJUnitResultDir(config.getOptionValue(XML_RESULT));
         if (config.hasOption(HTML_RESULT))
             runner.setHtmlResultDir(config.getOptionValue(HTML_RESULT));
+        if (config.hasOption(REPORT_THREADS)) {
+            int threads = NumberUtils.toInt(config.getOptionValue(REPORT_THREADS), 0);
+            if (threads <= 0)
+                throw new IllegalArgumentException("Invalid report threads value. (" + config.getOptionValue(REPORT_THREADS) + ")");
+            runner.setReportThreads(threads);
+        }
+        if (config.hasOption(LOG_BUFFER_SIZE)) {
+            int size = NumberUtils.toInt(config.getOptionValue(LOG_BUFFER_SIZE), 0);
+            if (size <= 0)
+                throw new IllegalArgumentException("Invalid log buffer size value. (" + config.getOptionValue(LOG_BUFFER_SIZE) + ")");
+            runner.setLogBufferSize(size);
+        }
         int timeout = NumberUtils.toInt(config.getOptionValue(TIMEOUT, DEFAULT_TIMEOUT_MILLISEC));
         if (timeout <= 0)
             throw new IllegalArgumentException("Invalid timeout value. (" + config.getOptionValue(TIMEOUT) + ")");
@@ -191,6 +264,18 @@ public class Main {
         runner.setPrintStream(System.out);
     }
 
+    private void setupDriverPool(WebDriverManager manager, String value) {
+        String[] params = value.split(":", -1);
+        if (params.length > 3)
+            throw new IllegalArgumentException("Invalid driver pool value. (" + value + ")");
+        int minSize = NumberUtils.toInt(params[0], -1);
+        int maxSize = params.length >= 2 ? NumberUtils.toInt(params[1], -1) : minSize;
+        long idleTimeout = params.length >= 3 ? NumberUtils.toLong(params[2], -1) : 0;
+        if (minSize < 0 || maxSize <= 0 || maxSize < minSize || idleTimeout < 0)
+            throw new IllegalArgumentException("Invalid driver pool value. (" + value + ")");
+        manager.setDriverPool(minSize, maxSize, idleTimeout * 1000);
+    }
+
     protected void exit(int exitCode) {
         this.exitCode = exitCode;
         log.info("Exit code: {}", exitCode);
@@ -10,7 +10,9 @@ import jp.vmi.selenium.selenese.command.ICommandFactory;
 import jp.vmi.selenium.selenese.locator.WebDriverElementFinder;
 import jp.vmi.selenium.selenese.log.CookieFilter;
 import jp.vmi.selenium.selenese.log.PageInformation;
+import jp.vmi.selenium.selenese.log.PageInformationMode;
 import jp.vmi.selenium.selenese.subcommand.SubCommandMap;
+import jp.vmi.selenium.selenese.utils.PollingPolicy;
 
 /**
  * Null implementation of Context.
@@ -117,6 +119,16 @@ public class NullContext implements Context {
     public void setTimeout(int timeout) {
     }
 
+    @Override
+    public PollingPolicy getPollingPolicy() {
+        return PollingPolicy.DEFAULT;
+    }
+
+    @Override
+    public int getLogBufferSize() {
+        return 0;
+    }
+
     @Override
     public void resetSpeed() {
     }
@@ -151,4 +163,31 @@ public class NullContext implements Context {
     @Override
     public void setCookieFilter(CookieFilter cookieFilter) {
     }
+
+    @Override
+    public PageInformationMode getPageInformationMode() {
+        return PageInformationMode.ALWAYS;
+    }
+
+    @Override
+    public void setPageInformationMode(PageInformationMode mode) {
+    }
+
+    @Override
+    public boolean isPageInformationByScript() {
+        return false;
+    }
+
+    @Override
+    public void setPageInformationByScript(boolean isPageInformationByScript) {
+    }
+
+    @Override
+    public int getPageInformationInterval() {
+        return 1;
+    }
+
+    @Override
+    public void setPageInformationInterval(int interval) {
+    }
 }
@@ -6,20 +6,31 @@ import java.io.InputStream;
 import java.io.PrintStream;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.output.NullOutputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.FastDateFormat;
 import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.NotFoundException;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
 import org.openqa.selenium.remote.Augmenter;
 import org.openqa.selenium.remote.RemoteWebDriver;
 import org.slf4j.Logger;
@@ -27,12 +38,13 @@ import org.slf4j.LoggerFactory;
 
 import jp.vmi.html.result.HtmlResult;
 import jp.vmi.html.result.HtmlResultHolder;
+import jp.vmi.html.result.TestSuiteSummary;
 import jp.vmi.junit.result.JUnitResult;
 import jp.vmi.junit.result.JUnitResultHolder;
 import jp.vmi.selenium.rollup.RollupRules;
 import jp.vmi.selenium.selenese.command.CommandFactory;
 import jp.vmi.selenium.selenese.command.CommandListIterator;
-import jp.vmi.selenium.selenese.highlight.HighlightHandler;
+import jp.vmi.selenium.selenese.highlight.BatchHighlightHandler;
 import jp.vmi.selenium.selenese.highlight.HighlightStyle;
 import jp.vmi.selenium.selenese.highlight.HighlightStyleBackup;
 import jp.vmi.selenium.selenese.inject.Binder;
@@ -40,9 +52,13 @@ import jp.vmi.selenium.selenese.locator.Locator;
 import jp.vmi.selenium.selenese.locator.WebDriverElementFinder;
 import jp.vmi.selenium.selenese.log.CookieFilter;
 import jp.vmi.selenium.selenese.log.PageInformation;
+import jp.vmi.selenium.selenese.log.PageInformationMode;
+import jp.vmi.selenium.selenese.result.Error;
 import jp.vmi.selenium.selenese.result.Result;
 import jp.vmi.selenium.selenese.subcommand.SubCommandMap;
 import jp.vmi.selenium.selenese.utils.PathUtils;
+import jp.vmi.selenium.selenese.utils.PollingPolicy;
+import jp.vmi.selenium.selenese.utils.ReportPipeline;
 import jp.vmi.selenium.webdriver.WebDriverPreparator;
 
 import static jp.vmi.selenium.selenese.result.Unexecuted.*;
@@ -51,7 +67,7 @@ import static org.openqa.selenium.remote.CapabilityType.*;
 /**
  * Provide Java API to run Selenese script.
  */
-public class Runner implements Context, ScreenshotHandler, HighlightHandler, JUnitResultHolder, HtmlResultHolder {
+public class Runner implements Context, ScreenshotHandler, BatchHighlightHandler, JUnitResultHolder, HtmlResultHolder {
 
     private static final Logger log = LoggerFactory.getLogger(Runner.class);
 
@@ -70,6 +86,8 @@ public class Runner implements Context, ScreenshotHandler, HighlightHandler, JUn
     private boolean isIgnoredScreenshotCommand = false;
     private boolean isHighlight = false;
     private int timeout = 30 * 1000; /* ms */
+    private PollingPolicy pollingPolicy = PollingPolicy.DEFAULT;
+    private int logBufferSize = 0;
     private long initialSpeed = 0; /* ms */
     private long speed = 0; /* ms */
 
@@ -86,9 +104,13 @@ public class Runner implements Context, ScreenshotHandler, HighlightHandler, JUn
 
     private PageInformation latestPageInformation = PageInformation.EMPTY;
     private CookieFilter cookieFilter = CookieFilter.ALL_PASS;
+    private PageInformationMode pageInformationMode = PageInformationMode.ALWAYS;
+    private boolean isPageInformationByScript = false;
+    private int pageInformationInterval = 1;
 
     private final JUnitResult jUnitResult = new JUnitResult();
     private final HtmlResult htmlResult = new HtmlResult();
+    private ReportPipeline reportPipeline = new ReportPipeline();
 
     /**
      * Constructor.
@@ -101,6 +123,9 @@ public class Runner implements Context, ScreenshotHandler, HighlightHandler, JUn
         this.commandFactory = new CommandFactory(this);
         this.varsMap = new VarsMap();
         this.styleBackups = new ArrayDeque<HighlightStyleBackup>();
+        // reports are written in background while executing next test-suites.
+        jUnitResult.setReportPipeline(reportPipeline);
+        htmlResult.setReportPipeline(reportPipeline);
     }
 
     /**
@@ -149,6 +174,7 @@ public class Runner implements Context, ScreenshotHandler, HighlightHandler, JUn
 
     private String takeScreenshot(TakesScreenshot tss, File file) throws WebDriverException {
         file = file.getAbsoluteFile();
+        elementFinder.invalidateSwitchedFrame();
         try {
             // cf. http://prospire-developers.blogspot.jp/2013/12/selenium-webdriver-tips.html (Japanese)
             driver.switchTo().defaultContent();
@@ -248,6 +274,7 @@ public class Runner implements Context, ScreenshotHandler, HighlightHandler, JUn
     public void setDriver(WebDriver driver) {
         this.driver = driver;
         this.initialWindowHandle = driver.getWindowHandle();
+        elementFinder.invalidateSwitchedFrame();
     }
 
     @Override
@@ -257,6 +284,15 @@ public class Runner implements Context, ScreenshotHandler, HighlightHandler, JUn
         setDriver(preparator.get());
     }
 
+    /**
+     * Get WebDriverPreparator.
+     *
+     * @return WebDriverPreparator, or null if not set.
+     */
+    public WebDriverPreparator getWebDriverPreparator() {
+        return preparator;
+    }
+
     /**
      * Set WebDriverPreparator.
      *
@@ -422,6 +458,39 @@ public class Runner implements Context, ScreenshotHandler, HighlightHandler, JUn
         log.info("Timeout: {} ms", timeout);
     }
 
+    @Override
+    public PollingPolicy getPollingPolicy() {
+        return pollingPolicy;
+    }
+
+    /**
+     * Set polling policy of waiting for conditions.
+     *
+     * @param pollingPolicy polling policy.
+     */
+    public void setPollingPolicy(PollingPolicy pollingPolicy) {
+        this.pollingPolicy = pollingPolicy;
+        log.info("Polling policy: {}", pollingPolicy);
+    }
+
+    @Override
+    public int getLogBufferSize() {
+        return logBufferSize;
+    }
+
+    /**
+     * Set maximum number of log messages of each test-case kept in memory.
+     * <p>
+     * Older messages are spilled to a temporary file.
+     * </p>
+     *
+     * @param logBufferSize buffer size. (0 means unlimited)
+     */
+    public void setLogBufferSize(int logBufferSize) {
+        this.logBufferSize = logBufferSize;
+        log.info("Log buffer size: {}", logBufferSize > 0 ? logBufferSize : "unlimited");
+    }
+
     /**
      * Get initial speed at starting test-suite. (ms)
      *
@@ -549,6 +618,38 @@ public class Runner implements Context, ScreenshotHandler, HighlightHandler, JUn
         this.cookieFilter = cookieFilter;
     }
 
+    @Override
+    public PageInformationMode getPageInformationMode() {
+        return pageInformationMode;
+    }
+
+    @Override
+    public void setPageInformationMode(PageInformationMode mode) {
+        this.pageInformationMode = mode;
+    }
+
+    @Override
+    public boolean isPageInformationByScript() {
+        return isPageInformationByScript;
+    }
+
+    @Override
+    public void setPageInformationByScript(boolean isPageInformationByScript) {
+        this.isPageInformationByScript = isPageInformationByScript;
+    }
+
+    @Override
+    public int getPageInformationInterval() {
+        return pageInformationInterval;
+    }
+
+    @Override
+    public void setPageInformationInterval(int interval) {
+        if (interval <= 0)
+            throw new IllegalArgumentException("Invalid page information interval. (" + interval + ")");
+        this.pageInformationInterval = interval;
+    }
+
     /**
      * Execute test-suite / test-case.
      *
@@ -568,6 +669,20 @@ public class Runner implements Context, ScreenshotHandler, HighlightHandler, JUn
         return (Boolean) eval.eval(driver, varsMap.replaceVars(expr), "Boolean");
     }
 
+    private TestSuite toTestSuite(String filename, Selenese selenese) {
+        switch (selenese.getType()) {
+        case TEST_SUITE:
+            return (TestSuite) selenese;
+        case TEST_CASE:
+            TestSuite testSuite = Binder.newTestSuite(filename, selenese.getName());
+            testSuite.addSelenese(selenese);
+            return testSuite;
+        default:
+            // don't reach here.
+            throw new RuntimeException("Unknown Selenese object: " + selenese);
+        }
+    }
+
     /**
      * Run Selenese script files.
      *
@@ -585,16 +700,7 @@ public class Runner implements Context, ScreenshotHandler, HighlightHandler, JUn
                 totalResult = ((ErrorSource) selenese).getResult();
                 continue;
             }
-            switch (selenese.getType()) {
-            case TEST_SUITE:
-                testSuiteList.add((TestSuite) selenese);
-                break;
-            case TEST_CASE:
-                TestSuite testSuite = Binder.newTestSuite(filename, selenese.getName());
-                testSuite.addSelenese(selenese);
-                testSuiteList.add(testSuite);
-                break;
-            }
+            testSuiteList.add(toTestSuite(filename, selenese));
         }
         if (totalResult != UNEXECUTED)
             return totalResult;
@@ -608,6 +714,123 @@ public class Runner implements Context, ScreenshotHandler, HighlightHandler, JUn
             }
             totalResult = totalResult.update(result);
         }
+        drainReports();
+        return totalResult;
+    }
+
+    private static class ParallelResult {
+
+        private final Result result;
+        // taken in the worker thread, because the worker may start the next test-suite before this is merged.
+        private final Map<TestSuite, TestSuiteSummary> summaries;
+
+        private ParallelResult(Result result, Map<TestSuite, TestSuiteSummary> summaries) {
+            this.result = result;
+            this.summaries = summaries;
+        }
+    }
+
+    private ParallelResult executeAsWorker(String filename) {
+        Selenese selenese = Parser.parse(filename, commandFactory);
+        Parser.setContextForBackwardCompatibility(selenese, this);
+        if (selenese.isError()) {
+            log.error(selenese.toString());
+            return new ParallelResult(((ErrorSource) selenese).getResult(), Collections.<TestSuite, TestSuiteSummary> emptyMap());
+        }
+        TestSuite testSuite = toTestSuite(filename, selenese);
+        Result result;
+        try {
+            result = execute(testSuite);
+        } catch (RuntimeException e) {
+            log.error(e.getMessage());
+            throw e;
+        }
+        return new ParallelResult(result, htmlResult.getSummaries(testSuite));
+    }
+
+    private static ParallelResult getParallelResult(Future<ParallelResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            else if (cause instanceof java.lang.Error)
+                throw (java.lang.Error) cause;
+            else
+                throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Run Selenese script files in parallel.
+     * <p>
+     * Each file is parsed and executed as a test-suite by one of idle workers.
+     * A file which fails to be parsed is recorded as an error result of it, and the other files are still executed.
+     * (unlike {@link #run(String...)}, which executes nothing if any file fails to be parsed)
+     * Each worker must be set up independently (WebDriver, options, result directories, etc.)
+     * and must not be shared with other threads while running.
+     * The results of workers are merged into this runner in the order of filenames,
+     * so call {@link #finish()} of this runner after this method.
+     * If a test-suite fails to execute, it is recorded as an error result and the others are continued.
+     * </p>
+     * @param workers runners executing test-suites.
+     * @param filenames Selenese script filenames.
+     * @return result.
+     */
+    public Result runInParallel(List<Runner> workers, String... filenames) {
+        if (workers.isEmpty())
+            throw new IllegalArgumentException("No worker for parallel execution.");
+        Result totalResult = UNEXECUTED;
+        final BlockingQueue<Runner> idleWorkers = new LinkedBlockingQueue<Runner>(workers);
+        ExecutorService executor = Executors.newFixedThreadPool(workers.size());
+        try {
+            List<Future<ParallelResult>> futures = new ArrayList<Future<ParallelResult>>();
+            for (final String filename : filenames) {
+                futures.add(executor.submit(new Callable<ParallelResult>() {
+                    @Override
+                    public ParallelResult call() throws InterruptedException {
+                        Runner worker = idleWorkers.take();
+                        try {
+                            return worker.executeAsWorker(filename);
+                        } finally {
+                            idleWorkers.add(worker);
+                        }
+                    }
+                }));
+            }
+            for (int i = 0; i < filenames.length; i++) {
+                ParallelResult presult;
+                try {
+                    presult = getParallelResult(futures.get(i));
+                } catch (RuntimeException e) {
+                    // the other test-suites are continued.
+                    log.error("Failed to execute {}: {}", filenames[i], e.getMessage());
+                    totalResult = totalResult.update(new Error(e));
+                    continue;
+                }
+                totalResult = totalResult.update(presult.result);
+                htmlResult.importSummaries(presult.summaries);
+            }
+        } finally {
+            if (Thread.currentThread().isInterrupted())
+                executor.shutdownNow();
+            else
+                executor.shutdown();
+            for (Runner worker : workers) {
+                try {
+                    worker.reportPipeline.drain();
+                } catch (RuntimeException e) {
+                    log.error("Failed to write report: {}", e.getMessage());
+                } finally {
+                    worker.reportPipeline.release();
+                }
+                jUnitResult.mergeFailsafeSummary(worker.getJUnitResult());
+            }
+        }
         return totalResult;
     }
 
@@ -619,22 +842,21 @@ public class Runner implements Context, ScreenshotHandler, HighlightHandler, JUn
      * @return result.
      */
     public Result run(String filename, InputStream is) {
-        TestSuite testSuite;
         Selenese selenese = Parser.parse(filename, is, commandFactory);
         Parser.setContextForBackwardCompatibility(selenese, this);
-        switch (selenese.getType()) {
-        case TEST_CASE:
-            testSuite = Binder.newTestSuite(filename, selenese.getName());
-            testSuite.addSelenese(selenese);
-            break;
-        case TEST_SUITE:
-            testSuite = (TestSuite) selenese;
-            break;
-        default:
-            // don't reach here.
-            throw new RuntimeException("Unknown Selenese object: " + selenese);
+        TestSuite testSuite = toTestSuite(filename, selenese);
+        Result result = testSuite.execute(null, this);
+        drainReports();
+        return result;
+    }
+
+    // the threads hold template engines referring to the results, so they are released even if finish() is not called.
+    private void drainReports() {
+        try {
+            reportPipeline.drain();
+        } finally {
+            reportPipeline.release();
         }
-        return testSuite.execute(null, this);
     }
 
     /**
@@ -647,6 +869,23 @@ public class Runner implements Context, ScreenshotHandler, HighlightHandler, JUn
         log.info("JUnit result directory: {}", dir);
     }
 
+    /**
+     * Set number of threads writing reports in background.
+     * <p>
+     * If it is 2 or more, the reports of independent test-suites are rendered in parallel.
+     * </p>
+     *
+     * @param threads number of threads.
+     */
+    public void setReportThreads(int threads) {
+        reportPipeline.drain();
+        reportPipeline.release();
+        reportPipeline = new ReportPipeline(threads, ReportPipeline.DEFAULT_QUEUE_SIZE);
+        jUnitResult.setReportPipeline(reportPipeline);
+        htmlResult.setReportPipeline(reportPipeline);
+        log.info("Report threads: {}", threads);
+    }
+
     @Override
     public JUnitResult getJUnitResult() {
         return jUnitResult;
@@ -670,11 +909,15 @@ public class Runner implements Context, ScreenshotHandler, HighlightHandler, JUn
     /**
      * Finish test.
      *
-     * generate index.html for HTML result.
+     * wait for writing reports in background, and generate index.html for HTML result.
+     * The threads writing reports are released after that.
      */
     public void finish() {
+        drainReports();
         jUnitResult.generateFailsafeSummary();
         htmlResult.generateIndex();
+        if (elementFinder.isCacheEnabled())
+            log.info("Element cache: hit={}, miss={}", elementFinder.getCacheHitCount(), elementFinder.getCacheMissCount());
     }
 
     @Override
@@ -687,6 +930,31 @@ public class Runner implements Context, ScreenshotHandler, HighlightHandler, JUn
         styleBackups.push(backup);
     }
 
+    @Override
+    public void highlight(String... locators) {
+        if (locators.length >= 2) {
+            List<Locator> selectedFrameLocators = elementFinder.getCurrentFrameLocators();
+            List<List<WebElement>> elementsList = null;
+            try {
+                elementsList = elementFinder.findElementsBatch(driver, Arrays.asList(locators), selectedFrameLocators);
+            } catch (RuntimeException e) {
+                // some elements are not found, so they are highlighted one by one.
+                if (!(e instanceof NotFoundException || e.getCause() instanceof NotFoundException))
+                    throw e;
+            }
+            if (elementsList != null) {
+                for (int i = 0; i < locators.length; i++) {
+                    Map<String, String> prevStyles = HighlightStyle.ELEMENT_STYLES[i].doHighlight(driver, elementsList.get(i).get(0));
+                    if (prevStyles != null)
+                        styleBackups.push(new HighlightStyleBackup(prevStyles, locators[i], selectedFrameLocators));
+                }
+                return;
+            }
+        }
+        for (int i = 0; i < locators.length; i++)
+            highlight(locators[i], HighlightStyle.ELEMENT_STYLES[i]);
+    }
+
     @Override
     public void unhighlight() {
         while (!styleBackups.isEmpty()) {
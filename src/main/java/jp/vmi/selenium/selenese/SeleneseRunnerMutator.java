@@ -11,7 +11,7 @@ import jp.vmi.selenium.selenese.VariableDeclarationWithDynamicValue.DynamicValue
  */
 public class SeleneseRunnerMutator extends CompoundMutator implements ScriptMutator {
 
-    private static final String BASE_URL = "selenium.browserbot.baseUrl";
+    static final String BASE_URL = "selenium.browserbot.baseUrl";
 
     private final Context context;
 
@@ -50,6 +50,7 @@ public class TestCase implements Selenese, ITestCase, IHtmlResultTestCase {
 
     private final StopWatch stopWatch = new StopWatch();
     private LogRecorder logRecorder = null;
+    private int executedCommandCount = 0;
 
     @Deprecated
     private Context context = null;
@@ -206,6 +207,15 @@ public class TestCase implements Selenese, ITestCase, IHtmlResultTestCase {
         return cresultList;
     }
 
+    /**
+     * Count up the number of executed commands in this test-case.
+     *
+     * @return number of executed commands including the current one.
+     */
+    public int countExecutedCommand() {
+        return ++executedCommandCount;
+    }
+
     /**
      * Create new collection (FIFO).
      *
@@ -295,6 +305,7 @@ public class TestCase implements Selenese, ITestCase, IHtmlResultTestCase {
             return cresultList.setResult(SUCCESS);
         context.setCurrentTestCase(this);
         context.getCollectionMap().clear();
+        executedCommandCount = 0;
         cresultList.setEndTime(System.currentTimeMillis());
         return commandList.execute(context, cresultList);
     }
@@ -8,12 +8,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import jp.vmi.html.result.IHtmlResultTestSuite;
+import jp.vmi.junit.result.ITestCase;
 import jp.vmi.junit.result.ITestSuite;
 import jp.vmi.selenium.selenese.command.ICommandFactory;
 import jp.vmi.selenium.selenese.inject.ExecuteTestSuite;
 import jp.vmi.selenium.selenese.log.PageInformation;
 import jp.vmi.selenium.selenese.result.Error;
 import jp.vmi.selenium.selenese.result.Result;
+import jp.vmi.selenium.selenese.utils.LogRecorder;
 import jp.vmi.selenium.selenese.utils.PathUtils;
 import jp.vmi.selenium.selenese.utils.StopWatch;
 
@@ -131,6 +133,22 @@ public class TestSuite implements Selenese, ITestSuite, IHtmlResultTestSuite {
         return seleneseList;
     }
 
+    /**
+     * Close log recorders of the test-cases in this test-suite.
+     * <p>
+     * This is called after the results of the test-cases are written.
+     * </p>
+     */
+    public void closeLogRecorders() {
+        for (Selenese selenese : seleneseList) {
+            if (selenese instanceof ITestCase) {
+                LogRecorder logRecorder = ((ITestCase) selenese).getLogRecorder();
+                if (logRecorder != null)
+                    logRecorder.close();
+            }
+        }
+    }
+
     /**
      * Get stop watch.
      *
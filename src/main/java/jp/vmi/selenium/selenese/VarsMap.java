@@ -1,6 +1,10 @@
 package jp.vmi.selenium.selenese;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.lang3.text.StrSubstitutor;
 import org.openqa.selenium.Keys;
@@ -14,6 +18,9 @@ public class VarsMap extends HashMap<String, Object> {
 
     private static final long serialVersionUID = 1L;
 
+    // keys modified since last synchronization. (all keys are modified if null)
+    private transient Set<String> modifiedKeys = null;
+
     /**
      * Constructor.
      */
@@ -58,6 +65,69 @@ public class VarsMap extends HashMap<String, Object> {
             put("KEY_" + alias, keys.toString());
     }
 
+    private void markModified(Object key) {
+        if (modifiedKeys != null && key instanceof String)
+            modifiedKeys.add((String) key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        markModified(key);
+        return super.put(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends Object> m) {
+        for (Map.Entry<? extends String, ? extends Object> entry : m.entrySet())
+            put(entry.getKey(), entry.getValue());
+    }
+
+    @Override
+    public Object remove(Object key) {
+        markModified(key);
+        return super.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        modifiedKeys = null;
+        super.clear();
+    }
+
+    /**
+     * Get keys modified since last synchronization, and start tracking modification again.
+     * <p>
+     * Note: modification through views such as {@link #entrySet()} is not tracked.
+     * </p>
+     *
+     * @return modified keys, or null if all keys should be synchronized.
+     */
+    public Set<String> pollModifiedKeys() {
+        Set<String> keys = modifiedKeys;
+        modifiedKeys = new HashSet<String>();
+        return keys;
+    }
+
+    /**
+     * Mark all keys as modified.
+     */
+    public void markAllModified() {
+        modifiedKeys = null;
+    }
+
+    /**
+     * Apply variables synchronized from other side without marking them as modified.
+     *
+     * @param changed changed variables.
+     * @param removed removed keys.
+     */
+    public void applySynchronized(Map<String, Object> changed, Collection<String> removed) {
+        for (Map.Entry<String, Object> entry : changed.entrySet())
+            super.put(entry.getKey(), entry.getValue());
+        for (String key : removed)
+            super.remove(key);
+    }
+
     /**
      * Replace variable reference to value.
      *
@@ -0,0 +1,163 @@
+package jp.vmi.selenium.selenese;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pre-parsed expression including variable references such as "${name}".
+ * <p>
+ * The result of {@link #render(VarsMap)} is same as {@link VarsMap#replaceVars(String)}.
+ * If the expression has no variable reference, the constant string is returned without any allocation.
+ * Complex expressions (nested or unterminated references) and recursive references in values
+ * are delegated to {@link VarsMap#replaceVars(String)}.
+ * </p>
+ */
+public final class VarsTemplate {
+
+    private static final String PREFIX = "${";
+    private static final char SUFFIX = '}';
+    private static final char ESCAPE = '$';
+
+    private final String expr;
+    // rendered string if the expression has no variable reference.
+    private final String constant;
+    private final boolean isComplex;
+    // expression = literals[0] + ${names[0]} + literals[1] + ... + ${names[n-1]} + literals[n]
+    private final String[] literals;
+    private final String[] names;
+    private final int literalLength;
+
+    private VarsTemplate(String expr, boolean isComplex, String[] literals, String[] names) {
+        this.expr = expr;
+        this.constant = (names == null && literals != null) ? literals[0] : expr;
+        this.isComplex = isComplex;
+        this.literals = literals;
+        this.names = names;
+        int length = 0;
+        if (literals != null)
+            for (String literal : literals)
+                length += literal.length();
+        this.literalLength = length;
+    }
+
+    /**
+     * Compile expression.
+     *
+     * @param expr expression.
+     * @return compiled template.
+     */
+    public static VarsTemplate compile(String expr) {
+        if (expr == null || expr.indexOf(PREFIX) < 0)
+            return new VarsTemplate(expr, false, null, null);
+        List<String> literals = new ArrayList<String>();
+        List<String> names = new ArrayList<String>();
+        StringBuilder literal = new StringBuilder();
+        int pos = 0;
+        int len = expr.length();
+        while (pos < len) {
+            int start = expr.indexOf(PREFIX, pos);
+            if (start < 0) {
+                literal.append(expr, pos, len);
+                break;
+            }
+            if (start > 0 && expr.charAt(start - 1) == ESCAPE) {
+                // "$${" is escaped "${".
+                literal.append(expr, pos, start - 1).append(PREFIX);
+                pos = start + PREFIX.length();
+                continue;
+            }
+            int nameStart = start + PREFIX.length();
+            int end = expr.indexOf(SUFFIX, nameStart);
+            int nested = expr.indexOf(PREFIX, nameStart);
+            if (end < 0 || (nested >= 0 && nested < end))
+                return new VarsTemplate(expr, true, null, null);
+            literal.append(expr, pos, start);
+            literals.add(literal.toString());
+            literal.setLength(0);
+            names.add(expr.substring(nameStart, end));
+            pos = end + 1;
+        }
+        literals.add(literal.toString());
+        if (names.isEmpty()) // only escaped references.
+            return new VarsTemplate(expr, false, literals.toArray(new String[1]), null);
+        return new VarsTemplate(expr, false, literals.toArray(new String[literals.size()]), names.toArray(new String[names.size()]));
+    }
+
+    /**
+     * Get original expression.
+     *
+     * @return expression.
+     */
+    public String getExpression() {
+        return expr;
+    }
+
+    /**
+     * Has the expression variable references?
+     *
+     * @return true if the expression may have variable references.
+     */
+    public boolean hasVariables() {
+        return isComplex || names != null;
+    }
+
+    /**
+     * May the rendered string start with prefix and end with suffix?
+     * <p>
+     * This is decided statically by the literal parts of the expression.
+     * </p>
+     *
+     * @param prefix prefix.
+     * @param suffix suffix.
+     * @return false if the rendered string never starts with prefix and ends with suffix.
+     */
+    public boolean mayBeEnclosedBy(String prefix, String suffix) {
+        if (expr == null)
+            return false;
+        if (isComplex)
+            return true;
+        if (names == null)
+            return constant.length() >= prefix.length() + suffix.length() && constant.startsWith(prefix) && constant.endsWith(suffix);
+        String first = literals[0];
+        if (!(first.startsWith(prefix) || prefix.startsWith(first)))
+            return false;
+        String last = literals[literals.length - 1];
+        return last.endsWith(suffix) || suffix.endsWith(last);
+    }
+
+    /**
+     * Replace variable references to values.
+     *
+     * @param varsMap variable map.
+     * @return replaced string.
+     */
+    public String render(VarsMap varsMap) {
+        if (!hasVariables())
+            return constant;
+        if (isComplex)
+            return varsMap.replaceVars(expr);
+        String[] values = new String[names.length];
+        int length = literalLength;
+        for (int i = 0; i < names.length; i++) {
+            Object value = varsMap.get(names[i]);
+            if (value == null)
+                continue;
+            String str = value.toString();
+            // the value is expanded recursively.
+            if (str.indexOf(PREFIX) >= 0)
+                return varsMap.replaceVars(expr);
+            values[i] = str;
+            length += str.length();
+        }
+        StringBuilder buf = new StringBuilder(length + (names.length << 2));
+        buf.append(literals[0]);
+        for (int i = 0; i < names.length; i++) {
+            if (values[i] != null)
+                buf.append(values[i]);
+            else
+                buf.append(PREFIX).append(names[i]).append(SUFFIX);
+            buf.append(literals[i + 1]);
+        }
+        return buf.toString();
+    }
+}
@@ -8,6 +8,8 @@ import java.util.List;
 import org.apache.commons.lang3.ArrayUtils;
 
 import jp.vmi.selenium.selenese.Context;
+import jp.vmi.selenium.selenese.VarsMap;
+import jp.vmi.selenium.selenese.VarsTemplate;
 import jp.vmi.selenium.selenese.locator.WebDriverElementFinder;
 import jp.vmi.selenium.selenese.result.Result;
 import jp.vmi.selenium.selenese.utils.LoggerUtils;
@@ -20,13 +22,19 @@ import static jp.vmi.selenium.selenese.result.Unexecuted.*;
  */
 public abstract class AbstractCommand implements ICommand {
 
+    private static final String JS_BLOCK_PREFIX = "javascript{";
+    private static final String JS_BLOCK_SUFFIX = "}";
+
     private final int index;
     private final String name;
     private final String[] args;
+    private final VarsTemplate[] argTemplates;
+    private final int[] jsBlockIndexes;
     private final ArgumentType[] argTypes;
     private final int[] locatorIndexes;
     private Result result = UNEXECUTED;
     private StartLoop startLoop = NO_START_LOOP;
+    private int loopDepth = -1; // computed lazily.
     private List<Screenshot> screenshots = null;
 
     /**
@@ -49,6 +57,15 @@ public abstract class AbstractCommand implements ICommand {
             if (curLen < reqLen)
                 Arrays.fill(this.args, curLen, reqLen, "");
         }
+        this.argTemplates = new VarsTemplate[this.args.length];
+        int[] jsBlockIndexes = new int[this.args.length];
+        int jsCnt = 0;
+        for (int i = 0; i < this.args.length; i++) {
+            this.argTemplates[i] = VarsTemplate.compile(this.args[i]);
+            if (this.argTemplates[i].mayBeEnclosedBy(JS_BLOCK_PREFIX, JS_BLOCK_SUFFIX))
+                jsBlockIndexes[jsCnt++] = i;
+        }
+        this.jsBlockIndexes = Arrays.copyOf(jsBlockIndexes, jsCnt);
         this.argTypes = argTypes;
         int[] locatorIndexes = new int[argTypes.length];
         int locCnt = 0;
@@ -100,6 +117,50 @@ public abstract class AbstractCommand implements ICommand {
         return args;
     }
 
+    /**
+     * Replace variable references in command arguments to values.
+     * <p>
+     * This is same as {@link VarsMap#replaceVarsForArray(String[])} with {@link #getArguments()},
+     * but uses pre-parsed arguments.
+     * </p>
+     *
+     * @param varsMap variable map.
+     * @return replaced arguments. (new array)
+     */
+    public String[] replaceVarsInArguments(VarsMap varsMap) {
+        String[] curArgs = new String[argTemplates.length];
+        for (int i = 0; i < argTemplates.length; i++)
+            curArgs[i] = argTemplates[i].render(varsMap);
+        return curArgs;
+    }
+
+    /**
+     * Is the argument constant? (i.e. it has no variable reference and is not "javascript{...}")
+     *
+     * @param index argument index.
+     * @return true if the argument is same as the source at every execution.
+     */
+    protected boolean isConstantArgument(int index) {
+        if (argTemplates[index].hasVariables())
+            return false;
+        for (int i : jsBlockIndexes)
+            if (i == index)
+                return false;
+        return true;
+    }
+
+    /**
+     * Get indexes of arguments which may be "javascript{...}" after replacing variables.
+     * <p>
+     * Note: DO NOT modify the returned array.
+     * </p>
+     *
+     * @return array of argument indexes.
+     */
+    public int[] getJavaScriptBlockIndexes() {
+        return jsBlockIndexes;
+    }
+
     @Override
     public String[] convertLocators(String[] args) {
         if (locatorIndexes.length == 0)
@@ -153,6 +214,7 @@ public abstract class AbstractCommand implements ICommand {
     @Override
     public void setStartLoop(StartLoop startLoop) {
         this.startLoop = startLoop;
+        this.loopDepth = -1;
     }
 
     @Override
@@ -160,6 +222,17 @@ public abstract class AbstractCommand implements ICommand {
         return startLoop;
     }
 
+    /**
+     * Get depth of loop nesting of this command.
+     *
+     * @return depth. (0 means that this command is not in any loop)
+     */
+    public int getLoopDepth() {
+        if (loopDepth < 0)
+            loopDepth = (startLoop == NO_START_LOOP) ? 0 : CommandSequence.getLoopDepth((ICommand) startLoop) + 1;
+        return loopDepth;
+    }
+
     @Override
     public void addScreenshot(String path, String label) {
         if (path == null)
@@ -1,6 +1,8 @@
 package jp.vmi.selenium.selenese.command;
 
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.slf4j.Logger;
@@ -14,6 +16,8 @@ import jp.vmi.selenium.selenese.result.Result;
 import jp.vmi.selenium.selenese.result.Warning;
 import jp.vmi.selenium.selenese.subcommand.ISubCommand;
 import jp.vmi.selenium.selenese.utils.SeleniumUtils;
+import jp.vmi.selenium.selenese.utils.SeleniumUtils.SeleniumPattern;
+import jp.vmi.selenium.selenese.utils.Waiter;
 
 import static jp.vmi.selenium.selenese.command.ArgumentType.*;
 import static jp.vmi.selenium.selenese.result.Success.*;
@@ -25,7 +29,16 @@ public class Assertion extends AbstractCommand {
 
     private static final Logger log = LoggerFactory.getLogger(Assertion.class);
 
-    private static final int RETRY_INTERVAL = 100 /* ms */;
+    // getters whose results are not reflected to DOM. (e.g. property values and layout)
+    private static final Set<String> NON_DOM_GETTERS = new HashSet<String>(Arrays.asList(
+        "getValue", "isChecked", "isEditable", "isSomethingSelected",
+        "getSelectedId", "getSelectedIds", "getSelectedIndex", "getSelectedIndexes",
+        "getSelectedLabel", "getSelectedLabels", "getSelectedValue", "getSelectedValues",
+        "getElementHeight", "getElementWidth", "getElementPositionLeft", "getElementPositionTop"));
+
+    // getters whose results depend on DOM without locator arguments.
+    private static final Set<String> DOM_GETTERS = new HashSet<String>(Arrays.asList(
+        "getTitle", "getBodyText", "getHtmlSource", "isTextPresent", "getXpathCount"));
 
     private enum Type {
         ASSERT("assert"), // throw exception
@@ -50,6 +63,33 @@ public class Assertion extends AbstractCommand {
     private final ISubCommand<?> getterSubCommand;
     private final boolean isBoolean;
     private final boolean isInverse;
+    private final boolean isDomBased;
+    private final boolean isConstantExpected;
+    // compiled pattern of the expected value if it is constant, or null.
+    private volatile SeleniumPattern expectedPattern = null;
+
+    private static boolean isDomBased(ISubCommand<?> getterSubCommand) {
+        String name = getterSubCommand.getName();
+        if (NON_DOM_GETTERS.contains(name))
+            return false;
+        if (DOM_GETTERS.contains(name))
+            return true;
+        for (ArgumentType argType : getterSubCommand.getArgumentTypes())
+            if (argType == LOCATOR || argType == ATTRIBUTE_LOCATOR || argType == CSS_LOCATOR)
+                return true;
+        return false;
+    }
+
+    // the expected value is compiled at the first execution, because it may differ from the source. (e.g. "$${...}")
+    private SeleniumPattern getExpectedPattern(String expected) {
+        SeleniumPattern pattern = expectedPattern;
+        if (pattern == null) {
+            pattern = SeleniumPattern.compile(expected);
+            if (isConstantExpected)
+                expectedPattern = pattern;
+        }
+        return pattern;
+    }
 
     private static ArgumentType[] getArgumentTypesOfThisCommand(ArgumentType[] argTypes, boolean isBoolean) {
         return isBoolean ? argTypes : ArrayUtils.add(argTypes, VALUE);
@@ -62,6 +102,8 @@ public class Assertion extends AbstractCommand {
         this.getterSubCommand = getterSubCommand;
         this.isBoolean = isBoolean;
         this.isInverse = isInverse;
+        this.isDomBased = isDomBased(getterSubCommand);
+        this.isConstantExpected = !isBoolean && isConstantArgument(getterSubCommand.getArgumentTypes().length);
         //        // "getAttribute" has a special locator argument.
         //        // Please check Store.java if want to modify following code.
         //        if ("getAttribute".equalsIgnoreCase(getterSubCommand.name)) {
@@ -90,7 +132,7 @@ public class Assertion extends AbstractCommand {
         boolean found = true;
         String message = null;
         int timeout = context.getTimeout();
-        long breakAfter = System.currentTimeMillis() + timeout;
+        Waiter waiter = (type == Type.WAIT_FOR) ? new Waiter(timeout, context.getPollingPolicy()) : null;
         while (true) {
             found = true;
             if (isBoolean) {
@@ -109,7 +151,8 @@ public class Assertion extends AbstractCommand {
             } else {
                 try {
                     String resultString = SeleniumUtils.convertToString(getterSubCommand.execute(context, getterArgs));
-                    if (SeleniumUtils.patternMatches(expected, resultString) ^ isInverse)
+                    // the pattern is compiled after the getter, so "not found" is reported before an invalid pattern.
+                    if (getExpectedPattern(expected).matches(resultString) ^ isInverse)
                         return SUCCESS;
                     message = String.format("Assertion failed (Result: [%s] / %sExpected: [%s])",
                         resultString, isInverse ? "Not " : "", expected);
@@ -121,10 +164,14 @@ public class Assertion extends AbstractCommand {
                     found = false;
                 }
             }
-            if (type != Type.WAIT_FOR || System.currentTimeMillis() > breakAfter)
+            if (type != Type.WAIT_FOR || waiter.isTimedOut())
                 break;
             try {
-                Thread.sleep(RETRY_INTERVAL);
+                // wake up as soon as DOM is changed if the result depends on DOM.
+                if (isDomBased)
+                    waiter.waitForDomChange(context.getWrappedDriver());
+                else
+                    waiter.sleep();
             } catch (InterruptedException e) {
                 log.warn(e.getMessage());
                 break;
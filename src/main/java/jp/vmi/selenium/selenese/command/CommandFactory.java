@@ -8,6 +8,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -86,8 +87,33 @@ public class CommandFactory implements ICommandFactory {
     private static final int IS_PRESENT_INVERSE = 4;
     private static final int PRESENT = 5;
 
+    // creates a command of the resolved command name.
+    private interface CommandTemplate {
+        ICommand newCommand(int index, String name, String[] args);
+    }
+
     private final List<ICommandFactory> commandFactories = new ArrayList<ICommandFactory>();
 
+    // command name -> resolved command template.
+    // the resolution depends on SubCommandMap of the context, so the cache is replaced when it is changed.
+    @SuppressWarnings("serial")
+    private static class TemplateCache extends ConcurrentHashMap<String, CommandTemplate> {
+
+        private final SubCommandMap subCommandMap;
+        private final int version;
+
+        private TemplateCache(SubCommandMap subCommandMap) {
+            this.subCommandMap = subCommandMap;
+            this.version = subCommandMap != null ? subCommandMap.getVersion() : 0;
+        }
+
+        private boolean isValidFor(SubCommandMap subCommandMap) {
+            return this.subCommandMap == subCommandMap && (subCommandMap == null || version == subCommandMap.getVersion());
+        }
+    }
+
+    private volatile TemplateCache templateCache = new TemplateCache(null);
+
     private Context context = null;
 
     /**
@@ -160,32 +186,62 @@ public class CommandFactory implements ICommandFactory {
             if (command != null)
                 return command;
         }
+        SubCommandMap subCommandMap = (context != null) ? context.getSubCommandMap() : null;
+        TemplateCache cache = templateCache;
+        if (!cache.isValidFor(subCommandMap)) {
+            cache = new TemplateCache(subCommandMap);
+            templateCache = cache;
+        }
+        CommandTemplate template = cache.get(name);
+        if (template == null) {
+            template = resolveTemplate(subCommandMap, name);
+            cache.put(name, template);
+        }
+        return template.newCommand(index, name, args);
+    }
 
+    private CommandTemplate resolveTemplate(SubCommandMap subCommandMap, String name) {
         boolean andWait = name.endsWith(AND_WAIT);
         String realName = andWait ? name.substring(0, name.length() - AND_WAIT.length()) : name;
 
         // command supported by the c ICommand without BuiltInCommand
-        Constructor<? extends ICommand> constructor = constructorMap.get(realName);
+        final Constructor<? extends ICommand> constructor = constructorMap.get(realName);
         if (constructor != null) {
-            try {
-                return constructor.newInstance(index, name, args);
-            } catch (Exception e) {
-                throw new SeleniumException(e);
-            }
+            return new CommandTemplate() {
+                @Override
+                public ICommand newCommand(int index, String name, String[] args) {
+                    try {
+                        return constructor.newInstance(index, name, args);
+                    } catch (Exception e) {
+                        throw new SeleniumException(e);
+                    }
+                }
+            };
         }
 
         // command supported by WebDriverCommandProcessor
-        SubCommandMap subCommandMap = context.getSubCommandMap();
-        ISubCommand<?> subCommand = subCommandMap.get(realName);
-        if (subCommand != null)
-            return new BuiltInCommand(index, name, args, subCommand, andWait);
+        final ISubCommand<?> subCommand = subCommandMap.get(realName);
+        if (subCommand != null) {
+            final boolean isAndWait = andWait;
+            return new CommandTemplate() {
+                @Override
+                public ICommand newCommand(int index, String name, String[] args) {
+                    return new BuiltInCommand(index, name, args, subCommand, isAndWait);
+                }
+            };
+        }
 
         // FIXME #32 workaround alert command handling.
         if (realName.matches("(?i)(?:assert|verify|waitFor)(?:Alert|Confirmation|Prompt)(?:(?:Not)?Present)?")) {
-            StringBuilder echo = new StringBuilder(name);
-            for (String arg : args)
-                echo.append(" ").append(arg);
-            return new Echo(index, name, echo.toString());
+            return new CommandTemplate() {
+                @Override
+                public ICommand newCommand(int index, String name, String[] args) {
+                    StringBuilder echo = new StringBuilder(name);
+                    for (String arg : args)
+                        echo.append(" ").append(arg);
+                    return new Echo(index, name, echo.toString());
+                }
+            };
         }
 
         // See: http://selenium.googlecode.com/svn/trunk/ide/main/src/content/selenium-core/reference.html
@@ -193,7 +249,7 @@ public class CommandFactory implements ICommandFactory {
         Matcher matcher = COMMAND_PATTERN.matcher(name);
         if (!matcher.matches())
             throw new SeleniumException("No such command: " + name);
-        String assertion = matcher.group(ASSERTION);
+        final String assertion = matcher.group(ASSERTION);
         String target = matcher.group(TARGET);
         if (target == null)
             target = "Expression";
@@ -209,11 +265,23 @@ public class CommandFactory implements ICommandFactory {
                 throw new SeleniumException("No such command: " + name);
             isBoolean = true;
         }
+        final ISubCommand<?> getterSubCommandFinal = getterSubCommand;
         if (assertion != null) {
-            boolean isInverse = matcher.group(IS_INVERSE) != null || matcher.group(IS_PRESENT_INVERSE) != null;
-            return new Assertion(index, name, args, assertion, getterSubCommand, isBoolean, isInverse);
+            final boolean isBooleanFinal = isBoolean;
+            final boolean isInverse = matcher.group(IS_INVERSE) != null || matcher.group(IS_PRESENT_INVERSE) != null;
+            return new CommandTemplate() {
+                @Override
+                public ICommand newCommand(int index, String name, String[] args) {
+                    return new Assertion(index, name, args, assertion, getterSubCommandFinal, isBooleanFinal, isInverse);
+                }
+            };
         } else { // Accessor
-            return new Store(index, name, args, getterSubCommand);
+            return new CommandTemplate() {
+                @Override
+                public ICommand newCommand(int index, String name, String[] args) {
+                    return new Store(index, name, args, getterSubCommandFinal);
+                }
+            };
         }
     }
 
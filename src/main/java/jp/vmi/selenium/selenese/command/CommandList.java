@@ -8,12 +8,17 @@ import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.openqa.selenium.StaleElementReferenceException;
+
 import jp.vmi.selenium.selenese.Context;
 import jp.vmi.selenium.selenese.inject.DoCommand;
+import jp.vmi.selenium.selenese.locator.WebDriverElementFinder;
 import jp.vmi.selenium.selenese.result.CommandResult;
 import jp.vmi.selenium.selenese.result.CommandResultList;
 import jp.vmi.selenium.selenese.result.Error;
 import jp.vmi.selenium.selenese.result.Result;
+import jp.vmi.selenium.selenese.utils.Waiter;
 
 /**
  * Command list.
@@ -97,21 +102,46 @@ public class CommandList extends ArrayList<ICommand> {
         try {
             return command.execute(context, curArgs);
         } catch (Exception e) {
+            if (ExceptionUtils.indexOfType(e, StaleElementReferenceException.class) >= 0) {
+                WebDriverElementFinder elementFinder = context.getElementFinder();
+                if (elementFinder != null)
+                    elementFinder.invalidateCache();
+            }
             return new Error(e);
         }
     }
 
     private static final Pattern JS_BLOCK_RE = Pattern.compile("javascript\\{(.*)\\}", Pattern.DOTALL);
 
+    private static void evalCurArg(Context context, String[] curArgs, int i) {
+        Matcher matcher = JS_BLOCK_RE.matcher(curArgs[i]);
+        if (matcher.matches()) {
+            Object value = context.getEval().eval(context.getWrappedDriver(), matcher.group(1));
+            if (value == null)
+                value = "";
+            curArgs[i] = value.toString();
+        }
+    }
+
+    protected String[] replaceVarsInArguments(Context context, ICommand command) {
+        if (command instanceof AbstractCommand)
+            return ((AbstractCommand) command).replaceVarsInArguments(context.getVarsMap());
+        else
+            return context.getVarsMap().replaceVarsForArray(command.getArguments());
+    }
+
     protected void evalCurArgs(Context context, String[] curArgs) {
-        for (int i = 0; i < curArgs.length; i++) {
-            Matcher matcher = JS_BLOCK_RE.matcher(curArgs[i]);
-            if (matcher.matches()) {
-                Object value = context.getEval().eval(context.getWrappedDriver(), matcher.group(1));
-                if (value == null)
-                    value = "";
-                curArgs[i] = value.toString();
-            }
+        for (int i = 0; i < curArgs.length; i++)
+            evalCurArg(context, curArgs, i);
+    }
+
+    protected void evalCurArgs(Context context, ICommand command, String[] curArgs) {
+        if (command instanceof AbstractCommand) {
+            // only the arguments which may be "javascript{...}".
+            for (int i : ((AbstractCommand) command).getJavaScriptBlockIndexes())
+                evalCurArg(context, curArgs, i);
+        } else {
+            evalCurArgs(context, curArgs);
         }
     }
 
@@ -147,9 +177,19 @@ public class CommandList extends ArrayList<ICommand> {
                 sequence.increment(command);
                 List<Screenshot> ss = command.getScreenshots();
                 int prevSSIndex = (ss == null) ? 0 : ss.size();
-                String[] curArgs = context.getVarsMap().replaceVarsForArray(command.getArguments());
-                evalCurArgs(context, curArgs);
+                String[] curArgs = replaceVarsInArguments(context, command);
+                evalCurArgs(context, command, curArgs);
+                Waiter.pollTotalWaitTime();
                 Result result = doCommand(context, command, curArgs);
+                long waitTime = Waiter.pollTotalWaitTime();
+                WebDriverElementFinder elementFinder = context.getElementFinder();
+                if (elementFinder != null) {
+                    // the command may have left the selected frame by page transition and so on.
+                    if (result instanceof Error)
+                        elementFinder.invalidateSwitchedFrame();
+                    else if (command.mayUpdateScreen())
+                        elementFinder.markSwitchedFrameUnverified();
+                }
                 if (result.isAborted())
                     isContinued = false;
                 else
@@ -160,7 +200,8 @@ public class CommandList extends ArrayList<ICommand> {
                     newSS = null;
                 else
                     newSS = new ArrayList<Screenshot>(ss.subList(prevSSIndex, ss.size()));
-                CommandResult cresult = new CommandResult(sequence.toString(), command, newSS, result, cresultList.getEndTime(), System.currentTimeMillis());
+                CommandResult cresult = new CommandResult(sequence.snapshot(), command, newSS, result, cresultList.getEndTime(), System.currentTimeMillis(),
+                    waitTime);
                 cresultList.add(cresult);
 
             }
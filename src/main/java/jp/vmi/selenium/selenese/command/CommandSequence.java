@@ -1,31 +1,82 @@
 package jp.vmi.selenium.selenese.command;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-import java.util.ListIterator;
+import java.util.Arrays;
 
 /**
  * Command sequence.
+ * <p>
+ * The counters are kept in primitive arrays indexed by loop depth, so that incrementing
+ * the sequence does not allocate any object unless the nesting grows deeper than ever.
+ * </p>
  */
 public class CommandSequence {
 
     private static final char SEPARATOR = '-';
 
-    private static class Counter {
+    private static final int INITIAL_CAPACITY = 4;
 
-        public StartLoop startLoop;
-        public int count;
+    /**
+     * Immutable snapshot of command sequence.
+     * <p>
+     * The string representation is formatted lazily.
+     * </p>
+     */
+    public static final class Snapshot {
+
+        private final int[] counts;
+        private final int level;
+        private String string;
+
+        private Snapshot(int[] counts, int level, String string) {
+            this.counts = counts;
+            this.level = level;
+            this.string = string;
+        }
+
+        private Snapshot(int[] counts) {
+            this(counts, counts.length, null);
+        }
+
+        /**
+         * Get snapshot of formatted sequence. (e.g. "1-2-3")
+         *
+         * @param sequence formatted sequence.
+         * @return snapshot.
+         */
+        public static Snapshot valueOf(String sequence) {
+            int level = sequence.isEmpty() ? 0 : 1;
+            for (int i = 0; i < sequence.length(); i++)
+                if (sequence.charAt(i) == SEPARATOR)
+                    level++;
+            return new Snapshot(null, level, sequence);
+        }
 
-        public Counter(StartLoop startLoop, int count) {
-            this.startLoop = startLoop;
-            this.count = count;
+        /**
+         * Get level of sequences.
+         *
+         * @return level.
+         */
+        public int getLevel() {
+            return level;
+        }
+
+        @Override
+        public String toString() {
+            String result = string;
+            if (result == null) {
+                StringBuilder buf = new StringBuilder(counts.length * 4);
+                appendTo(buf, counts, counts.length);
+                string = result = buf.toString();
+            }
+            return result;
         }
     }
 
     private final CommandSequence parent;
-    private final List<Counter> counters = new ArrayList<Counter>();
-    private Counter tail;
+    // loops[i] is the beginning-of-loop command at depth i, and counts[i] is its counter.
+    private StartLoop[] loops = new StartLoop[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int size;
 
     /**
      * Constructor.
@@ -34,18 +85,36 @@ public class CommandSequence {
      */
     public CommandSequence(CommandSequence parent) {
         this.parent = parent;
-        counters.add(tail = new Counter(StartLoop.NO_START_LOOP, 0));
+        loops[0] = StartLoop.NO_START_LOOP;
+        counts[0] = 0;
+        size = 1;
     }
 
-    private static List<StartLoop> getListOfStartLoop(ICommand command) {
-        List<StartLoop> result;
-        StartLoop startLoop = command.getStartLoop();
-        if (startLoop == StartLoop.NO_START_LOOP)
-            result = new ArrayList<StartLoop>();
-        else
-            result = getListOfStartLoop((ICommand) startLoop);
-        result.add(startLoop);
-        return result;
+    /**
+     * Get depth of loop nesting of the command.
+     *
+     * @param command command.
+     * @return depth. (0 means that the command is not in any loop)
+     */
+    public static int getLoopDepth(ICommand command) {
+        if (command instanceof AbstractCommand)
+            return ((AbstractCommand) command).getLoopDepth();
+        int depth = 0;
+        for (StartLoop startLoop = command.getStartLoop(); startLoop != StartLoop.NO_START_LOOP; startLoop = ((ICommand) startLoop).getStartLoop())
+            depth++;
+        return depth;
+    }
+
+    private static StartLoop getParentLoop(StartLoop startLoop) {
+        return ((ICommand) startLoop).getStartLoop();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > loops.length) {
+            int newCapacity = Math.max(capacity, loops.length * 2);
+            loops = Arrays.copyOf(loops, newCapacity);
+            counts = Arrays.copyOf(counts, newCapacity);
+        }
     }
 
     /**
@@ -54,32 +123,36 @@ public class CommandSequence {
      * @param command current command.
      */
     public void increment(ICommand command) {
-        if (tail.startLoop == command.getStartLoop()) {
-            tail.count++;
+        StartLoop startLoop = command.getStartLoop();
+        if (loops[size - 1] == startLoop) {
+            counts[size - 1]++;
         } else {
-            Iterator<Counter> citer = counters.iterator();
-            ListIterator<StartLoop> siter = getListOfStartLoop(command).listIterator();
-            int index = 0;
-            while (citer.hasNext()) {
-                if (!siter.hasNext())
-                    break;
-                if (citer.next().startLoop != siter.next()) {
-                    siter.previous();
-                    break;
-                }
-                index++;
+            int depth = getLoopDepth(command);
+            // find the deepest common loop between current counters and the loops of the command.
+            int common = Math.min(depth, size - 1);
+            StartLoop s = startLoop;
+            for (int i = depth; i > common; i--)
+                s = getParentLoop(s);
+            while (loops[common] != s) {
+                common--;
+                s = getParentLoop(s);
             }
-            if (index < counters.size())
-                counters.subList(index, counters.size()).clear();
-            counters.get(counters.size() - 1).count++;
-            while (siter.hasNext()) {
-                StartLoop s = siter.next();
-                counters.add(new Counter(s, 1));
+            counts[common]++;
+            ensureCapacity(depth + 1);
+            s = startLoop;
+            for (int i = depth; i > common; i--) {
+                loops[i] = s;
+                counts[i] = 1;
+                s = getParentLoop(s);
             }
-            tail = counters.get(counters.size() - 1);
+            size = depth + 1;
+        }
+        if (command instanceof StartLoop) {
+            ensureCapacity(size + 1);
+            loops[size] = (StartLoop) command;
+            counts[size] = 1;
+            size++;
         }
-        if (command instanceof StartLoop)
-            counters.add(tail = new Counter((StartLoop) command, 1));
     }
 
     /**
@@ -88,16 +161,36 @@ public class CommandSequence {
      * @return level.
      */
     public int getLevel() {
-        return (parent != null ? parent.getLevel() : 0) + counters.size();
+        return (parent != null ? parent.getLevel() : 0) + size;
+    }
+
+    private int copyTo(int[] result) {
+        int offset = (parent != null) ? parent.copyTo(result) : 0;
+        System.arraycopy(counts, 0, result, offset, size);
+        return offset + size;
+    }
+
+    /**
+     * Get immutable snapshot of the current sequence.
+     *
+     * @return snapshot.
+     */
+    public Snapshot snapshot() {
+        int[] result = new int[getLevel()];
+        copyTo(result);
+        return new Snapshot(result);
+    }
+
+    private static void appendTo(StringBuilder buf, int[] counts, int length) {
+        buf.append(counts[0]);
+        for (int i = 1; i < length; i++)
+            buf.append(SEPARATOR).append(counts[i]);
     }
 
     private StringBuilder appendString(StringBuilder result) {
         if (result.length() > 0)
             result.append(SEPARATOR);
-        Iterator<Counter> iter = counters.iterator();
-        result.append(iter.next().count);
-        while (iter.hasNext())
-            result.append(SEPARATOR).append(iter.next().count);
+        appendTo(result, counts, size);
         return result;
     }
 
@@ -59,13 +59,24 @@ public class SeleneseRunnerOptions extends Options {
     public static final String PHANTOMJS = "phantomjs";
     public static final String XML_RESULT = "xml-result";
     public static final String HTML_RESULT = "html-result";
+    public static final String REPORT_THREADS = "report-threads";
+    public static final String LOG_BUFFER_SIZE = "log-buffer-size";
     public static final String TIMEOUT = "timeout";
     public static final String SET_SPEED = "set-speed";
+    public static final String PARALLEL = "parallel";
+    public static final String DRIVER_POOL = "driver-pool";
+    public static final String LIVENESS_WINDOW = "liveness-window";
     public static final String HEIGHT = "height";
     public static final String WIDTH = "width";
     public static final String DEFINE = "define";
     public static final String ROLLUP = "rollup";
     public static final String COOKIE_FILTER = "cookie-filter";
+    public static final String PAGE_INFO = "page-info";
+    public static final String PAGE_INFO_BY_SCRIPT = "page-info-by-script";
+    public static final String PAGE_INFO_INTERVAL = "page-info-interval";
+    public static final String ELEMENT_CACHE = "element-cache";
+    public static final String FRAME_SEARCH_DEPTH = "frame-search-depth";
+    public static final String POLLING_POLICY = "polling-policy";
     public static final String COMMAND_FACTORY = "command-factory";
     public static final String NO_EXIT = "no-exit";
     public static final String STRICT_EXIT_CODE = "strict-exit-code";
@@ -73,6 +84,7 @@ public class SeleneseRunnerOptions extends Options {
 
     // default values.
     public static final String DEFAULT_TIMEOUT_MILLISEC = "30000";
+    public static final String DEFAULT_PARALLEL = "1";
 
     // parts of help message.
     private static final String HEADER = "Selenese script interpreter implemented by Java.";
@@ -265,6 +277,14 @@ public class SeleneseRunnerOptions extends Options {
             .hasArg().withArgName("dir")
             .withDescription("output HTML results to specified directory.")
             .create());
+        addOption(OptionBuilder.withLongOpt(REPORT_THREADS)
+            .hasArg().withArgName("num")
+            .withDescription("number of threads writing XML/HTML results in background. (default: 1)")
+            .create());
+        addOption(OptionBuilder.withLongOpt(LOG_BUFFER_SIZE)
+            .hasArg().withArgName("num")
+            .withDescription("keep specified number of latest log messages of each test-case in memory, and spill older ones to a temporary file. (default: unlimited)")
+            .create());
         addOption(OptionBuilder.withLongOpt(TIMEOUT)
             .hasArg().withArgName("timeout")
             .withDescription("set timeout (ms) for waiting. (default: " + DEFAULT_TIMEOUT_MILLISEC + " ms)")
@@ -273,6 +293,20 @@ public class SeleneseRunnerOptions extends Options {
             .hasArg().withArgName("speed")
             .withDescription("same as executing setSpeed(ms) command first.")
             .create());
+        addOption(OptionBuilder.withLongOpt(PARALLEL)
+            .hasArg().withArgName("num")
+            .withDescription("execute test-suites in parallel by specified number of WebDriver instances. (default: " + DEFAULT_PARALLEL + ")"
+                + " A script failing to parse is recorded as an error and the others are still executed,"
+                + " unlike sequential execution which stops before executing any.")
+            .create());
+        addOption(OptionBuilder.withLongOpt(DRIVER_POOL)
+            .hasArg().withArgName("min[:max[:idle]]")
+            .withDescription("keep pre-started drivers. (idle: timeout (sec) of drivers beyond min, 0 means no eviction)")
+            .create());
+        addOption(OptionBuilder.withLongOpt(LIVENESS_WINDOW)
+            .hasArg().withArgName("ms")
+            .withDescription("skip checking driver liveness if it succeeded a command within specified time. (default: 0)")
+            .create());
         addOption(OptionBuilder.withLongOpt(HEIGHT)
             .hasArg().withArgName("height")
             .withDescription("set initial height. (excluding mobile)")
@@ -293,6 +327,28 @@ public class SeleneseRunnerOptions extends Options {
             .hasArg().withArgName("+RE|-RE")
             .withDescription("filter cookies to log by RE matching the name. (\"+\" is passing, \"-\" is ignoring)")
             .create());
+        addOption(OptionBuilder.withLongOpt(PAGE_INFO)
+            .hasArg().withArgName("mode")
+            .withDescription("none | on-change | on-fail | always (default) - when to log URL/title/cookies.")
+            .create());
+        addOption(OptionBuilder.withLongOpt(PAGE_INFO_BY_SCRIPT)
+            .withDescription("get URL/title/cookies to log by a single JavaScript call. (excluding HttpOnly cookies except on fail)")
+            .create());
+        addOption(OptionBuilder.withLongOpt(PAGE_INFO_INTERVAL)
+            .hasArg().withArgName("num")
+            .withDescription("log URL/title/cookies at every specified number of commands and failed commands. (\"always\" mode only, default: 1)")
+            .create());
+        addOption(OptionBuilder.withLongOpt(ELEMENT_CACHE)
+            .withDescription("reuse found elements until DOM is changed. (requires MutationObserver)")
+            .create());
+        addOption(OptionBuilder.withLongOpt(FRAME_SEARCH_DEPTH)
+            .hasArg().withArgName("depth")
+            .withDescription("max depth of frames searched for locators not found in the selected frame. (0: no search, default: unlimited)")
+            .create());
+        addOption(OptionBuilder.withLongOpt(POLLING_POLICY)
+            .hasArg().withArgName("policy")
+            .withDescription("polling interval of waiting for conditions. (INITIAL:MULTIPLIER:MAX[:JITTER], the unit of INITIAL/MAX is ms, default: 5:2:100)")
+            .create());
         addOption(OptionBuilder.withLongOpt(COMMAND_FACTORY)
             .hasArg().withArgName("FQCN")
             .withDescription("register user defined command factory. (See Note *3)")
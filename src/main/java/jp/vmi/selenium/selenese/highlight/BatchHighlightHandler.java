@@ -0,0 +1,20 @@
+package jp.vmi.selenium.selenese.highlight;
+
+/**
+ * Handle highlighting of multiple locators at once.
+ * <p>
+ * This is optional. If the handler does not implement this, the locators are highlighted one by one.
+ * </p>
+ */
+public interface BatchHighlightHandler extends HighlightHandler {
+
+    /**
+     * Highlight and backup specified locators.
+     * <p>
+     * The i-th locator is highlighted by {@link HighlightStyle#ELEMENT_STYLES}[i].
+     * </p>
+     *
+     * @param locators locators.
+     */
+    void highlight(String... locators);
+}
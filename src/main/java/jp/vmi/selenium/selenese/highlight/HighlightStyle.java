@@ -69,12 +69,10 @@ public class HighlightStyle {
      * @param selectedFrameLocators selected frame locators.
      * @return previous style.
      */
-    @SuppressWarnings("unchecked")
     public Map<String, String> doHighlight(WebDriver driver, WebDriverElementFinder elementFinder, String locator, List<Locator> selectedFrameLocators) {
         try {
             WebElement element = elementFinder.findElement(driver, locator, selectedFrameLocators);
-            Object result = ((JavascriptExecutor) driver).executeScript(SCRIPT, element, styles);
-            return result instanceof Map ? (Map<String, String>) result : null;
+            return doHighlight(driver, element);
         } catch (RuntimeException e) {
             // element specified by locator is not found.
             if (e instanceof NotFoundException || e.getCause() instanceof NotFoundException || e instanceof StaleElementReferenceException)
@@ -82,4 +80,21 @@ public class HighlightStyle {
             throw e;
         }
     }
+
+    /**
+     * Do highlight specified element.
+     *
+     * @param driver instance of WebDriver.
+     * @param element target element.
+     * @return previous style.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, String> doHighlight(WebDriver driver, WebElement element) {
+        try {
+            Object result = ((JavascriptExecutor) driver).executeScript(SCRIPT, element, styles);
+            return result instanceof Map ? (Map<String, String>) result : null;
+        } catch (StaleElementReferenceException e) {
+            return null;
+        }
+    }
 }
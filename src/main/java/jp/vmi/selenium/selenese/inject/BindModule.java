@@ -63,7 +63,8 @@ public class BindModule extends AbstractModule {
         return new AbstractDoCommandInterceptor[] {
             new CommandLogInterceptor(), /* 1st */
             new HighlightInterceptor(), /* 2nd */
-            new ScreenshotInterceptor() /* 3rd */
+            new ScreenshotInterceptor(), /* 3rd */
+            new DriverLivenessInterceptor() /* 4th */
         };
     }
 
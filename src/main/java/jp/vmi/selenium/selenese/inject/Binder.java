@@ -16,7 +16,7 @@ import jp.vmi.selenium.selenese.command.CommandList;
  */
 public class Binder {
 
-    private static Injector injector = Guice.createInjector(new BindModule());
+    private static volatile Injector injector = Guice.createInjector(new BindModule());
 
     /**
      * Replace customized BindModule.
@@ -9,10 +9,12 @@ import org.slf4j.LoggerFactory;
 
 import jp.vmi.junit.result.JUnitResultHolder;
 import jp.vmi.selenium.selenese.Context;
+import jp.vmi.selenium.selenese.TestCase;
 import jp.vmi.selenium.selenese.command.CommandSequence;
 import jp.vmi.selenium.selenese.command.ICommand;
 import jp.vmi.selenium.selenese.log.CookieFilter;
 import jp.vmi.selenium.selenese.log.PageInformation;
+import jp.vmi.selenium.selenese.log.PageInformationMode;
 import jp.vmi.selenium.selenese.result.Result;
 import jp.vmi.selenium.selenese.utils.LogRecorder;
 
@@ -23,9 +25,40 @@ public class CommandLogInterceptor extends AbstractDoCommandInterceptor {
 
     private static final Logger log = LoggerFactory.getLogger(CommandLogInterceptor.class);
 
-    private void logResult(LogRecorder clr, String indent, String cmdStr, Result result, Context context) {
+    private static boolean isPageInformationRequired(Context context, ICommand command, int count, Result result) {
+        switch (context.getPageInformationMode()) {
+        case NONE:
+            return false;
+        case ON_FAIL:
+            return result.isFailed();
+        case ON_CHANGE:
+            return result.isFailed() || PageInformationMode.mayChangePage(command.getName());
+        default: // ALWAYS
+            int interval = context.getPageInformationInterval();
+            return result.isFailed() || interval == 1 || count % interval == 0;
+        }
+    }
+
+    private void logResult(LogRecorder clr, String indent, ICommand command, int count, String cmdStr, Result result, Context context) {
+        if (!isPageInformationRequired(context, command, count, result)) {
+            if (result.isFailed()) {
+                String resStr = indent + cmdStr + " => " + result;
+                log.error(resStr);
+                if (clr != null)
+                    clr.error(resStr);
+            } else {
+                String resStr = indent + "- " + result;
+                log.info(resStr);
+                if (clr != null)
+                    clr.info(resStr);
+            }
+            return;
+        }
         PageInformation prevInfo = context.getLatestPageInformation();
-        PageInformation info = new PageInformation(context);
+        // HttpOnly cookies are invisible from JavaScript, so use WebDriver API on failure.
+        PageInformation info = (context.isPageInformationByScript() && !result.isFailed())
+            ? PageInformation.captureByScript(context)
+            : new PageInformation(context);
         CookieFilter cookieFilter = context.getCookieFilter();
         String prefix = indent + "- Cookie: ";
         if (result.isFailed()) {
@@ -44,7 +77,7 @@ public class CommandLogInterceptor extends AbstractDoCommandInterceptor {
             if (clr != null)
                 clr.info(resStr);
             List<String> messages;
-            if (info.isSameOrigin(prevInfo))
+            if (info.isComparableCookies(prevInfo))
                 messages = info.cookieMap.diffMessages(cookieFilter, prevInfo.cookieMap);
             else
                 messages = info.cookieMap.allMessages(cookieFilter);
@@ -61,7 +94,10 @@ public class CommandLogInterceptor extends AbstractDoCommandInterceptor {
     @Override
     protected Result invoke(MethodInvocation invocation, Context context, ICommand command, String[] curArgs) throws Throwable {
         CommandSequence commandSequence = context.getCommandListIterator().getCommandSequence();
-        LogRecorder clr = context.getCurrentTestCase().getLogRecorder();
+        TestCase testCase = context.getCurrentTestCase();
+        LogRecorder clr = testCase.getLogRecorder();
+        // count executed commands instead of using the position in script, because of loops and jumps.
+        int count = testCase.countExecutedCommand();
         String indent = StringUtils.repeat("  ", commandSequence.getLevel() - 1);
         String cmdStr = command.toString();
         String firstMsg = indent + "<" + commandSequence + "> " + cmdStr;
@@ -70,7 +106,7 @@ public class CommandLogInterceptor extends AbstractDoCommandInterceptor {
             clr.info(firstMsg);
         try {
             Result result = (Result) invocation.proceed();
-            logResult(clr, indent, cmdStr, result, context);
+            logResult(clr, indent, command, count, cmdStr, result, context);
             return result;
         } catch (Exception e) {
             String msg = cmdStr + " => " + e.getMessage();
@@ -78,7 +114,7 @@ public class CommandLogInterceptor extends AbstractDoCommandInterceptor {
             if (clr != null)
                 clr.error(indent + msg);
             if (context instanceof JUnitResultHolder)
-                ((JUnitResultHolder) context).getJUnitResult().setError(context.getCurrentTestCase(), e.getMessage(), e.toString());
+                ((JUnitResultHolder) context).getJUnitResult().setError(testCase, e.getMessage(), e.toString());
             throw e;
         }
     }
@@ -0,0 +1,65 @@
+package jp.vmi.selenium.selenese.inject;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.openqa.selenium.WebDriver;
+
+import jp.vmi.selenium.selenese.Context;
+import jp.vmi.selenium.selenese.Runner;
+import jp.vmi.selenium.selenese.command.Comment;
+import jp.vmi.selenium.selenese.command.Echo;
+import jp.vmi.selenium.selenese.command.Gotolabel;
+import jp.vmi.selenium.selenese.command.ICommand;
+import jp.vmi.selenium.selenese.command.ILabel;
+import jp.vmi.selenium.selenese.command.Pause;
+import jp.vmi.selenium.selenese.command.SetSpeed;
+import jp.vmi.selenium.selenese.command.SetTimeout;
+import jp.vmi.selenium.selenese.result.Error;
+import jp.vmi.selenium.selenese.result.Result;
+import jp.vmi.selenium.webdriver.WebDriverManager;
+import jp.vmi.selenium.webdriver.WebDriverPreparator;
+
+/**
+ * Interceptor for tracking liveness of WebDriver.
+ * <p>
+ * This notifies the outcome of each command which accesses WebDriver to {@link WebDriverManager}.
+ * </p>
+ */
+public class DriverLivenessInterceptor extends AbstractDoCommandInterceptor {
+
+    private static final String CLOSE = "close";
+
+    // these commands never access WebDriver.
+    private static boolean isDriverIndependent(ICommand command) {
+        return command instanceof Comment
+            || command instanceof Echo
+            || command instanceof ILabel
+            || command instanceof Gotolabel
+            || command instanceof Pause
+            || command instanceof SetSpeed
+            || command instanceof SetTimeout;
+    }
+
+    @Override
+    protected Result invoke(MethodInvocation invocation, Context context, ICommand command, String[] curArgs) throws Throwable {
+        if (!(context instanceof Runner))
+            return (Result) invocation.proceed();
+        WebDriverPreparator preparator = ((Runner) context).getWebDriverPreparator();
+        if (!(preparator instanceof WebDriverManager) || isDriverIndependent(command))
+            return (Result) invocation.proceed();
+        WebDriverManager manager = (WebDriverManager) preparator;
+        WebDriver driver = context.getWrappedDriver();
+        Result result;
+        try {
+            result = (Result) invocation.proceed();
+        } catch (Throwable t) {
+            manager.notifyDriverFailed(driver);
+            throw t;
+        }
+        // "close" command may leave no focused window, so the driver should be probed.
+        if (result instanceof Error || CLOSE.equals(command.getName()))
+            manager.notifyDriverFailed(driver);
+        else
+            manager.notifyDriverAlive(driver);
+        return result;
+    }
+}
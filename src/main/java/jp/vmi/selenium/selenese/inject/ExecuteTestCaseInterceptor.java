@@ -33,7 +33,7 @@ public class ExecuteTestCaseInterceptor extends AbstractExecuteTestCaseIntercept
             jUnitResult = null;
         }
         StopWatch sw = testCase.getStopWatch();
-        LogRecorder clr = new LogRecorder(context.getPrintStream());
+        LogRecorder clr = new LogRecorder(context.getPrintStream(), context.getLogBufferSize());
         testCase.setLogRecorder(clr);
         sw.start();
         if (!testCase.isError()) {
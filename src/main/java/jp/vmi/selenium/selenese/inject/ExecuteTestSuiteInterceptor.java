@@ -61,8 +61,11 @@ public class ExecuteTestSuiteInterceptor extends AbstractExecuteTestSuiteInterce
             sw.end();
             if (jUnitResult != null)
                 jUnitResult.endTestSuite(testSuite);
-            if (htmlResult != null)
+            // the logs of the test-cases are closed after rendering HTML result if it is enabled.
+            if (htmlResult != null && htmlResult.getDir() != null)
                 htmlResult.generate(testSuite);
+            else
+                testSuite.closeLogRecorders();
         }
     }
 }
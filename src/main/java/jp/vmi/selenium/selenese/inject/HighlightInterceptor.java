@@ -4,6 +4,7 @@ import org.aopalliance.intercept.MethodInvocation;
 
 import jp.vmi.selenium.selenese.Context;
 import jp.vmi.selenium.selenese.command.ICommand;
+import jp.vmi.selenium.selenese.highlight.BatchHighlightHandler;
 import jp.vmi.selenium.selenese.highlight.HighlightHandler;
 import jp.vmi.selenium.selenese.highlight.HighlightStyle;
 import jp.vmi.selenium.selenese.result.Result;
@@ -19,10 +20,14 @@ public class HighlightInterceptor extends AbstractDoCommandInterceptor {
             HighlightHandler handler = (HighlightHandler) context;
             handler.unhighlight();
             if (handler.isHighlight()) {
-                int i = 0;
                 String[] locators = command.convertLocators(curArgs);
-                for (String locator : locators)
-                    handler.highlight(locator, HighlightStyle.ELEMENT_STYLES[i++]);
+                if (handler instanceof BatchHighlightHandler) {
+                    ((BatchHighlightHandler) handler).highlight(locators);
+                } else {
+                    int i = 0;
+                    for (String locator : locators)
+                        handler.highlight(locator, HighlightStyle.ELEMENT_STYLES[i++]);
+                }
             }
         }
         return (Result) invocation.proceed();
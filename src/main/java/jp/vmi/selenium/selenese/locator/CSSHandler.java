@@ -18,7 +18,7 @@ class CSSHandler implements LocatorHandler {
         return driver.findElements(By.cssSelector(fixCssSelector(arg)));
     }
 
-    private String fixCssSelector(String cssSelector) {
+    static String fixCssSelector(String cssSelector) {
         /*
          * Selenium IDE records in some cases invalid css selectors which gets fixed once executed by the IDE
          * Example:
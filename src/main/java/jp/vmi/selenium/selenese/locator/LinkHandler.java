@@ -72,7 +72,7 @@ class LinkHandler implements LocatorHandler {
 
     @Override
     public List<WebElement> handle(WebDriver driver, String arg) {
-        SeleniumPattern sp = new SeleniumPattern(arg);
+        SeleniumPattern sp = SeleniumPattern.compile(arg);
         switch (sp.type) {
         case REGEXP:
         case REGEXPI:
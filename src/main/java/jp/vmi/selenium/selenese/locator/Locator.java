@@ -1,7 +1,9 @@
 package jp.vmi.selenium.selenese.locator;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -11,6 +13,9 @@ import static org.apache.commons.lang3.StringUtils.*;
 
 /**
  * Parsed locator.
+ * <p>
+ * This is immutable, so the instance can be shared by lookups of the same locator.
+ * </p>
  */
 @SuppressWarnings("javadoc")
 public class Locator {
@@ -52,8 +57,14 @@ public class Locator {
     /** option locator. */
     public final String option;
 
-    /** frame list. */
-    public final Deque<Integer> frameIndexList = new ArrayDeque<Integer>();
+    /**
+     * frame index list to the frame where the located element is. (only for selected frame locators)
+     * <p>
+     * Since 2.3.0, this is an unmodifiable {@link List} instead of a mutable {@link java.util.Deque}.
+     * Use {@link #withFrameIndexList(Collection)} to get a locator with another frame index list.
+     * </p>
+     */
+    public final List<Integer> frameIndexList;
 
     private static String formatLocator(String locator, String option) {
         return (option == null) ? locator : locator + " (" + option + ")";
@@ -68,6 +79,7 @@ public class Locator {
         String[] pair = locator.split(OPTION_LOCATOR_SEPARATOR, 2);
         this.locator = pair[0];
         this.option = pair.length == 2 ? pair[1] : null;
+        this.frameIndexList = Collections.emptyList();
         Matcher matcher = LOCATORS_RE.matcher(this.locator);
         if (matcher.matches()) {
             String type = matcher.group(LOCATOR_TYPE);
@@ -97,6 +109,24 @@ public class Locator {
         }
     }
 
+    private Locator(Locator ploc, Collection<Integer> frameIndexList) {
+        this.locator = ploc.locator;
+        this.type = ploc.type;
+        this.arg = ploc.arg;
+        this.option = ploc.option;
+        this.frameIndexList = Collections.unmodifiableList(new ArrayList<Integer>(frameIndexList));
+    }
+
+    /**
+     * Get a copy of this locator with frame index list.
+     *
+     * @param frameIndexList frame index list.
+     * @return new locator.
+     */
+    public Locator withFrameIndexList(Collection<Integer> frameIndexList) {
+        return new Locator(this, frameIndexList);
+    }
+
     public boolean isTypeRelative() {
         return RELATIVE.equals(type);
     }
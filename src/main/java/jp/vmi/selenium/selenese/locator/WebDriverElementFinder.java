@@ -1,16 +1,26 @@
 package jp.vmi.selenium.selenese.locator;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.NoSuchFrameException;
 import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.UnsupportedCommandException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebDriverException;
@@ -21,6 +31,8 @@ import org.slf4j.LoggerFactory;
 import com.thoughtworks.selenium.SeleniumException;
 import com.thoughtworks.selenium.webdriven.ElementFinder;
 
+import jp.vmi.selenium.selenese.utils.DomGeneration;
+
 /**
  * WebDriver Element Locator.
  *
@@ -48,13 +60,146 @@ public class WebDriverElementFinder extends ElementFinder {
         return parentLocator + Locator.OPTION_LOCATOR_SEPARATOR + optionLocator;
     }
 
+    /**
+     * Maximum number of cached element lists.
+     */
+    public static final int MAX_CACHE_SIZE = 256;
+
+    // returns [iframe count, frame count, [child tree, ...]] of the current frame, or null if the frame is not accessible.
+    private static final String FRAME_TREE_SCRIPT = ""
+        + "var walk = function(w, depth) {\n"
+        + "  var d;\n"
+        + "  try { d = w.document; if (!d || !d.getElementsByTagName) return null; } catch (e) { return null; }\n"
+        + "  var n = d.getElementsByTagName('iframe').length;\n"
+        + "  var m = d.getElementsByTagName('frame').length;\n"
+        + "  var c = [];\n"
+        + "  if (depth !== 0)\n"
+        + "    for (var i = 0; i < Math.max(n, m) && i < w.frames.length; i++)\n"
+        + "      c.push(walk(w.frames[i], depth - 1));\n"
+        + "  return [n, m, c];\n"
+        + "};\n"
+        + "return walk(window, arguments[0]);";
+
+    // find(type, arg) returns an array of found elements (empty if not found), or null if not supported.
+    private static final String FIND_FUNCTION = ""
+        + "var byXPath = function(xpath) {\n"
+        + "  var r = document.evaluate(xpath, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);\n"
+        + "  var a = [];\n"
+        + "  for (var i = 0; i < r.snapshotLength; i++) {\n"
+        + "    var n = r.snapshotItem(i);\n"
+        + "    if (n.nodeType !== 1) return null;\n"
+        + "    a.push(n);\n"
+        + "  }\n"
+        + "  return a;\n"
+        + "};\n"
+        + "var byCss = function(css) {\n"
+        + "  var r = document.querySelectorAll(css);\n"
+        + "  var a = [];\n"
+        + "  for (var i = 0; i < r.length; i++) a.push(r[i]);\n"
+        + "  return a;\n"
+        + "};\n"
+        + "var byAttr = function(name, value) {\n"
+        + "  return byCss('*[' + name + '=\"' + value.replace(/([\"\\\\])/g, '\\\\$1') + '\"]');\n"
+        + "};\n"
+        + "var find = function(type, arg) {\n"
+        + "  try {\n"
+        + "    switch (type) {\n"
+        + "    case 'identifier':\n"
+        + "      var r = byAttr('id', arg);\n"
+        + "      return r.length > 0 ? r : byAttr('name', arg);\n"
+        + "    case 'id': return byAttr('id', arg);\n"
+        + "    case 'name': return byAttr('name', arg);\n"
+        + "    case 'xpath': return byXPath(arg);\n"
+        + "    case 'css': return byCss(arg);\n"
+        + "    default: return null;\n"
+        + "    }\n"
+        + "  } catch (e) {\n"
+        + "    return null;\n"
+        + "  }\n"
+        + "};\n";
+
+    // returns an array of found elements for each [type, arg], or null if not found or not supported.
+    private static final String BATCH_SCRIPT = FIND_FUNCTION
+        + "var locs = arguments[0];\n"
+        + "var result = [];\n"
+        + "for (var i = 0; i < locs.length; i++) {\n"
+        + "  var r = find(locs[i][0], locs[i][1]);\n"
+        + "  result.push(r && r.length > 0 ? r : null);\n"
+        + "}\n"
+        + "return result;";
+
+    // returns [DOM generation] if it is same as the cached one (arguments[0]) or the locator is not findable by script,
+    // otherwise [DOM generation, result of find(arguments[1], arguments[2])].
+    private static final String SET_FRAME_TOKEN_SCRIPT = "window.__seleneseFrameToken = arguments[0];";
+
+    private static final String CHECK_FRAME_TOKEN_SCRIPT = "return window.__seleneseFrameToken === arguments[0];";
+
+    private static final AtomicInteger frameTokenNumber = new AtomicInteger(0);
+
+    private static final String CACHED_FIND_SCRIPT = DomGeneration.FUNCTION + FIND_FUNCTION
+        + "var gen = domGeneration();\n"
+        + "if (gen === null || gen === arguments[0] || !arguments[1])\n"
+        + "  return [gen];\n"
+        + "return [gen, find(arguments[1], arguments[2])];";
+
+    private static class CachedElements {
+
+        private final String domGeneration;
+        private final List<WebElement> elements;
+
+        private CachedElements(String domGeneration, List<WebElement> elements) {
+            this.domGeneration = domGeneration;
+            this.elements = elements;
+        }
+    }
+
     private final Map<String, LocatorHandler> handlerMap = new HashMap<String, LocatorHandler>();
     private final Map<String, OptionLocatorHandler> optionHandlerMap = new HashMap<String, OptionLocatorHandler>();
 
+    // "dom" and user defined locators may depend on any state, so they are not cached.
+    private final Set<String> cacheableTypes = new HashSet<String>();
+    private final Set<String> batchableTypes = new HashSet<String>();
+
     private final List<Locator> currentFrameLocators = new ArrayList<Locator>();
 
     private WebDriver noParentFrameWebDriver = null;
 
+    // the frame which the driver is switched to. (null means unknown)
+    private WebDriver switchedDriver = null;
+    private List<Locator> switchedFrameLocators = null;
+
+    // the token set to the switched frame to check whether the driver is still in the frame.
+    private String switchedFrameToken = null;
+    private boolean isSwitchedFrameUnverified = false;
+
+    private boolean isCacheEnabled = false;
+    @SuppressWarnings("serial")
+    private final Map<String, CachedElements> cache = new LinkedHashMap<String, CachedElements>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedElements> eldest) {
+            return size() > MAX_CACHE_SIZE;
+        }
+    };
+
+    @SuppressWarnings("serial")
+    private final Map<String, Locator> locatorCache = new LinkedHashMap<String, Locator>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Locator> eldest) {
+            return size() > MAX_CACHE_SIZE;
+        }
+    };
+
+    private int frameSearchDepth = -1;
+    @SuppressWarnings("serial")
+    private final Map<String, List<Integer>> lastMatchedFrames = new LinkedHashMap<String, List<Integer>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<Integer>> eldest) {
+            return size() > MAX_CACHE_SIZE;
+        }
+    };
+    private long cacheHitCount = 0;
+    private long cacheMissCount = 0;
+
     /**
      * Constructor.
      */
@@ -71,6 +216,8 @@ public class WebDriverElementFinder extends ElementFinder {
         registerOptionHandler(new OptionIdHandler());
         registerOptionHandler(new OptionIndexHandler());
         registerOptionHandler(new OptionValueHandler());
+        cacheableTypes.addAll(Arrays.asList(Locator.IDENTIFIER, Locator.ID, Locator.NAME, Locator.XPATH, Locator.LINK, Locator.CSS, "class"));
+        batchableTypes.addAll(Arrays.asList(Locator.IDENTIFIER, Locator.ID, Locator.NAME, Locator.XPATH, Locator.CSS));
     }
 
     /**
@@ -81,6 +228,8 @@ public class WebDriverElementFinder extends ElementFinder {
      */
     public WebDriverElementFinder registerHandler(LocatorHandler handler) {
         handlerMap.put(handler.locatorType(), handler);
+        cacheableTypes.remove(handler.locatorType());
+        batchableTypes.remove(handler.locatorType());
         return this;
     }
 
@@ -100,6 +249,167 @@ public class WebDriverElementFinder extends ElementFinder {
         registerHandler(new AdditionalHandler(strategyName, implementation));
     }
 
+    /**
+     * Enable or disable the cache of found elements.
+     * <p>
+     * The cached elements are reused until the DOM of the selected frame is changed,
+     * which is detected by MutationObserver. If the browser does not support MutationObserver,
+     * elements are not cached.
+     * </p>
+     *
+     * @param isCacheEnabled true if the cache is enabled.
+     */
+    public void setCacheEnabled(boolean isCacheEnabled) {
+        this.isCacheEnabled = isCacheEnabled;
+        if (!isCacheEnabled)
+            invalidateCache();
+    }
+
+    /**
+     * Is the cache of found elements enabled?
+     *
+     * @return true if the cache is enabled.
+     */
+    public boolean isCacheEnabled() {
+        return isCacheEnabled;
+    }
+
+    /**
+     * Discard all cached elements.
+     * <p>
+     * This should be called when a cached element is stale.
+     * </p>
+     */
+    public void invalidateCache() {
+        cache.clear();
+    }
+
+    /**
+     * Get number of lookups which reused cached elements.
+     *
+     * @return cache hit count.
+     */
+    public long getCacheHitCount() {
+        return cacheHitCount;
+    }
+
+    /**
+     * Get number of cacheable lookups which searched elements.
+     *
+     * @return cache miss count.
+     */
+    public long getCacheMissCount() {
+        return cacheMissCount;
+    }
+
+    /**
+     * Set max depth of frames searched for the locator not found in the selected frame.
+     *
+     * @param frameSearchDepth max depth. (0: no search, negative: unlimited)
+     */
+    public void setFrameSearchDepth(int frameSearchDepth) {
+        this.frameSearchDepth = frameSearchDepth;
+        lastMatchedFrames.clear();
+    }
+
+    /**
+     * Get max depth of frames searched for the locator not found in the selected frame.
+     *
+     * @return max depth. (0: no search, negative: unlimited)
+     */
+    public int getFrameSearchDepth() {
+        return frameSearchDepth;
+    }
+
+    /**
+     * Parse locator.
+     * <p>
+     * Parsed locators are immutable, so they are interned by the locator string.
+     * </p>
+     *
+     * @param locator locator.
+     * @return parsed locator.
+     */
+    public Locator parseLocator(String locator) {
+        Locator ploc = locatorCache.get(locator);
+        if (ploc == null) {
+            ploc = new Locator(locator);
+            locatorCache.put(locator, ploc);
+        }
+        return ploc;
+    }
+
+    private boolean isCacheable(Locator ploc) {
+        if (!cacheableTypes.contains(ploc.type))
+            return false;
+        // pseudo-classes such as ":checked" may depend on the state which is not reflected to DOM.
+        return !Locator.CSS.equals(ploc.type) || ploc.arg.indexOf(':') < 0;
+    }
+
+    private static String getCacheKey(List<Locator> selectedFrameLocators, String locator) {
+        StringBuilder key = new StringBuilder();
+        for (Locator frameLocator : selectedFrameLocators)
+            key.append(frameLocator.locator).append(frameLocator.frameIndexList).append('\n');
+        return key.append(locator).toString();
+    }
+
+    // returns [type, arg] for CACHED_FIND_SCRIPT, or ["", ""] if the locator is not findable by script.
+    // (some drivers do not accept null as a script argument)
+    private Object[] getScriptLocator(Locator ploc) {
+        if (!isBatchable(ploc))
+            return new Object[] { "", "" };
+        return new Object[] { ploc.type, Locator.CSS.equals(ploc.type) ? CSSHandler.fixCssSelector(ploc.arg) : ploc.arg };
+    }
+
+    /**
+     * Find elements through the cache.
+     * <p>
+     * The DOM generation is checked and the elements are searched by a single script call,
+     * so that both of a cache hit and a cache miss cost only one round trip for the locators findable by script.
+     * </p>
+     */
+    @SuppressWarnings("unchecked")
+    private List<WebElement> findElementsWithCache(WebDriver driver, String locator, Locator ploc, Deque<Integer> frameIndexList, List<Locator> selectedFrameLocators) {
+        if (!DomGeneration.isSupported(driver) || !(driver instanceof JavascriptExecutor))
+            return findElementsInternal(driver, ploc, frameIndexList, selectedFrameLocators);
+        String key = getCacheKey(selectedFrameLocators, locator);
+        CachedElements cached = cache.get(key);
+        Object[] scriptLocator = getScriptLocator(ploc);
+        List<?> result;
+        try {
+            result = (List<?>) ((JavascriptExecutor) driver).executeScript(CACHED_FIND_SCRIPT,
+                cached != null ? cached.domGeneration : "", scriptLocator[0], scriptLocator[1]);
+        } catch (WebDriverException e) {
+            log.debug("Failed to get DOM generation: {}", e.getMessage());
+            return findElementsInternal(driver, ploc, frameIndexList, selectedFrameLocators);
+        }
+        Object domGeneration = result != null && !result.isEmpty() ? result.get(0) : null;
+        if (domGeneration == null) {
+            log.info("{} does not support MutationObserver. Element cache is disabled.", driver.getClass().getSimpleName());
+            DomGeneration.setUnsupported(driver);
+            return findElementsInternal(driver, ploc, frameIndexList, selectedFrameLocators);
+        }
+        if (cached != null && cached.domGeneration.equals(domGeneration)) {
+            cacheHitCount++;
+            return new ArrayList<WebElement>(cached.elements);
+        }
+        cacheMissCount++;
+        Object found = result.size() >= 2 ? result.get(1) : null;
+        List<WebElement> elements;
+        if (found instanceof List && !((List<?>) found).isEmpty())
+            elements = new ArrayList<WebElement>((List<WebElement>) found);
+        else if (found instanceof List) // not found in the selected frame.
+            elements = findElementsInOtherFrames(driver, ploc, frameIndexList, selectedFrameLocators);
+        else
+            elements = findElementsInternal(driver, ploc, frameIndexList, selectedFrameLocators);
+        // elements found in descendant frames are not cached, because the DOM generation is only checked in the selected frame.
+        if (frameIndexList.isEmpty())
+            cache.put(key, new CachedElements(domGeneration.toString(), new ArrayList<WebElement>(elements)));
+        else
+            cache.remove(key);
+        return elements;
+    }
+
     /**
      * call findElement of superclass.
      *
@@ -112,7 +422,95 @@ public class WebDriverElementFinder extends ElementFinder {
         return super.findElement(driver, locator);
     }
 
-    private void switchToFrame(WebDriver driver, List<Locator> plocs) {
+    /**
+     * Forget the frame which the driver is switched to.
+     * <p>
+     * This must be called after switching frame or window without this finder.
+     * Then the next lookup switches frame from the top.
+     * </p>
+     */
+    public void invalidateSwitchedFrame() {
+        switchedDriver = null;
+        switchedFrameLocators = null;
+        switchedFrameToken = null;
+    }
+
+    /**
+     * Is the driver switched to the top-level frame by this finder?
+     *
+     * @param driver WebDriver.
+     * @return true if the driver is known to be in the top-level frame.
+     */
+    public boolean isSwitchedToDefaultContent(WebDriver driver) {
+        return switchedDriver == driver && switchedFrameLocators != null && switchedFrameLocators.isEmpty();
+    }
+
+    /**
+     * Mark the frame which the driver is switched to as unverified.
+     * <p>
+     * This should be called after a command which may update the screen.
+     * Then the next lookup checks by one script call whether the driver is still in the frame,
+     * and switches frame from the top only if it is not.
+     * </p>
+     */
+    public void markSwitchedFrameUnverified() {
+        isSwitchedFrameUnverified = true;
+    }
+
+    private void setSwitchedFrame(WebDriver driver, List<Locator> plocs) {
+        switchedDriver = driver;
+        switchedFrameLocators = new ArrayList<Locator>(plocs);
+        switchedFrameToken = null;
+        isSwitchedFrameUnverified = false;
+        // the top-level frame is not marked, because the driver returns to it by itself.
+        if (plocs.isEmpty() || !(driver instanceof JavascriptExecutor))
+            return;
+        String token = "frame-" + frameTokenNumber.incrementAndGet();
+        try {
+            ((JavascriptExecutor) driver).executeScript(SET_FRAME_TOKEN_SCRIPT, token);
+            switchedFrameToken = token;
+        } catch (WebDriverException e) {
+            log.debug("Failed to mark the switched frame: {}", e.getMessage());
+        }
+    }
+
+    private boolean isSwitchedTo(WebDriver driver, List<Locator> plocs) {
+        if (switchedFrameLocators == null || switchedDriver != driver || switchedFrameLocators.size() != plocs.size())
+            return false;
+        for (int i = 0; i < plocs.size(); i++)
+            if (switchedFrameLocators.get(i) != plocs.get(i))
+                return false;
+        if (isSwitchedFrameUnverified) {
+            isSwitchedFrameUnverified = false;
+            if (!plocs.isEmpty() && !isInSwitchedFrame(driver))
+                return false;
+        }
+        return true;
+    }
+
+    // the token is lost if the frame is reloaded, or the driver has left the frame.
+    private boolean isInSwitchedFrame(WebDriver driver) {
+        if (switchedFrameToken == null)
+            return false;
+        try {
+            return Boolean.TRUE.equals(((JavascriptExecutor) driver).executeScript(CHECK_FRAME_TOKEN_SCRIPT, switchedFrameToken));
+        } catch (WebDriverException e) {
+            log.debug("Failed to check the switched frame: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Switch to the frame.
+     *
+     * @param driver WebDriver.
+     * @param plocs frame locators.
+     * @return true if switching is skipped because the driver has been already switched to the frame.
+     */
+    private boolean switchToFrame(WebDriver driver, List<Locator> plocs) {
+        if (isSwitchedTo(driver, plocs))
+            return true;
+        invalidateSwitchedFrame();
         driver.switchTo().defaultContent();
         try {
             List<Locator> selectedFrameLocators = new ArrayList<Locator>();
@@ -120,12 +518,15 @@ public class WebDriverElementFinder extends ElementFinder {
                 for (int index : ploc.frameIndexList)
                     driver.switchTo().frame(index);
                 if (!ploc.isTypeIndex()) {
-                    WebElement frame = findElementsInternal(driver, ploc, selectedFrameLocators).get(0);
+                    Deque<Integer> frameIndexList = new ArrayDeque<Integer>(ploc.frameIndexList);
+                    WebElement frame = findElementsInternal(driver, ploc, frameIndexList, selectedFrameLocators).get(0);
                     driver.switchTo().frame(frame);
                 }
                 selectedFrameLocators.add(ploc);
             }
+            setSwitchedFrame(driver, plocs);
         } catch (RuntimeException e) {
+            invalidateSwitchedFrame();
             if (e instanceof NotFoundException || e.getCause() instanceof NotFoundException) {
                 if (plocs == currentFrameLocators) {
                     log.warn("The selected frame has disapeared: {}", StringUtils.join(plocs, '/'));
@@ -133,15 +534,18 @@ public class WebDriverElementFinder extends ElementFinder {
                 }
                 driver.switchTo().defaultContent();
                 plocs.clear();
+                setSwitchedFrame(driver, plocs);
             } else {
                 throw e;
             }
         }
+        return false;
     }
 
-    private void pushFrame(WebDriver driver, Locator ploc, int index) {
+    private void pushFrame(WebDriver driver, Deque<Integer> frameIndexList, int index) {
+        invalidateSwitchedFrame();
         driver.switchTo().frame(index);
-        ploc.frameIndexList.addLast(index);
+        frameIndexList.addLast(index);
     }
 
     private boolean isParentFrameUnsupported(RuntimeException e) {
@@ -150,11 +554,13 @@ public class WebDriverElementFinder extends ElementFinder {
             && StringUtils.contains(e.getMessage(), "switchToParentFrame"));
     }
 
-    private void popFrame(WebDriver driver, Locator ploc, List<Locator> selectedFrameLocators) {
-        ploc.frameIndexList.pollLast();
+    private void popFrame(WebDriver driver, Deque<Integer> frameIndexList, List<Locator> selectedFrameLocators) {
+        frameIndexList.pollLast();
         if (noParentFrameWebDriver != driver) {
             try {
                 driver.switchTo().parentFrame();
+                if (frameIndexList.isEmpty())
+                    setSwitchedFrame(driver, selectedFrameLocators);
                 return;
             } catch (RuntimeException e) {
                 if (!isParentFrameUnsupported(e))
@@ -164,29 +570,122 @@ public class WebDriverElementFinder extends ElementFinder {
             }
         }
         switchToFrame(driver, selectedFrameLocators);
-        for (int index : ploc.frameIndexList)
-            driver.switchTo().frame(index);
+        if (!frameIndexList.isEmpty()) {
+            invalidateSwitchedFrame();
+            for (int index : frameIndexList)
+                driver.switchTo().frame(index);
+        }
     }
 
-    private List<WebElement> findElementsByLocator(LocatorHandler handler, WebDriver driver, Locator ploc, List<Locator> selectedFrameLocators) {
+    private List<WebElement> findElementsByLocator(LocatorHandler handler, WebDriver driver, Locator ploc, Deque<Integer> frameIndexList, List<Locator> selectedFrameLocators) {
         List<WebElement> result = handler.handle(driver, ploc.arg);
         if (!result.isEmpty())
             return result;
-        int iframeCount = driver.findElements(By.tagName("iframe")).size();
+        return findElementsInDescendantFrames(handler, driver, ploc, frameIndexList, selectedFrameLocators);
+    }
+
+    // search the frames under the frame specified by frameIndexList.
+    private List<WebElement> findElementsInDescendantFrames(LocatorHandler handler, WebDriver driver, Locator ploc, Deque<Integer> frameIndexList, List<Locator> selectedFrameLocators) {
+        List<WebElement> result;
+        if (frameSearchDepth == 0)
+            return null;
+        // the search starts from the frame specified by frameIndexList.
+        int baseSize = frameIndexList.size();
+        String key = getCacheKey(selectedFrameLocators, frameIndexList + ploc.toString());
+        List<Integer> lastMatchedFrame = lastMatchedFrames.get(key);
+        if (lastMatchedFrame != null) {
+            result = findElementsInLastMatchedFrame(handler, driver, ploc, frameIndexList, selectedFrameLocators, lastMatchedFrame);
+            if (result != null)
+                return result;
+        }
+        result = findElementsInChildFrames(handler, driver, ploc, frameIndexList, selectedFrameLocators, getFrameTree(driver), frameSearchDepth);
+        if (result != null) {
+            List<Integer> matchedFrame = new ArrayList<Integer>(frameIndexList);
+            lastMatchedFrames.put(key, matchedFrame.subList(baseSize, matchedFrame.size()));
+        } else {
+            lastMatchedFrames.remove(key);
+        }
+        return result;
+    }
+
+    private List<WebElement> findElementsInLastMatchedFrame(LocatorHandler handler, WebDriver driver, Locator ploc, Deque<Integer> frameIndexList, List<Locator> selectedFrameLocators, List<Integer> frameIndexes) {
+        int pushed = 0;
+        try {
+            for (int index : frameIndexes) {
+                pushFrame(driver, frameIndexList, index);
+                pushed++;
+            }
+            List<WebElement> result = handler.handle(driver, ploc.arg);
+            if (!result.isEmpty())
+                return result;
+        } catch (NoSuchFrameException e) {
+            // the frame has disappeared.
+        }
+        for (int i = 0; i < pushed; i++)
+            popFrame(driver, frameIndexList, selectedFrameLocators);
+        return null;
+    }
+
+    private List<?> getFrameTree(WebDriver driver) {
+        if (!(driver instanceof JavascriptExecutor))
+            return null;
+        try {
+            Object tree = ((JavascriptExecutor) driver).executeScript(FRAME_TREE_SCRIPT, frameSearchDepth);
+            return (tree instanceof List) ? (List<?>) tree : null;
+        } catch (WebDriverException e) {
+            log.debug("Failed to get frame tree: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static List<?> getChildFrameTree(List<?> tree, int index) {
+        if (tree == null)
+            return null;
+        List<?> children = (List<?>) tree.get(2);
+        Object child = (index < children.size()) ? children.get(index) : null;
+        return (child instanceof List) ? (List<?>) child : null;
+    }
+
+    private List<WebElement> findElementsInFrameTree(LocatorHandler handler, WebDriver driver, Locator ploc, Deque<Integer> frameIndexList, List<Locator> selectedFrameLocators, List<?> tree, int depth) {
+        List<WebElement> result = handler.handle(driver, ploc.arg);
+        if (!result.isEmpty())
+            return result;
+        if (depth == 0)
+            return null;
+        return findElementsInChildFrames(handler, driver, ploc, frameIndexList, selectedFrameLocators, tree, depth);
+    }
+
+    /**
+     * Search child frames recursively.
+     * <p>
+     * If the frame tree enumerated by JavaScript is available, it is used instead of counting frames at each frame.
+     * </p>
+     */
+    private List<WebElement> findElementsInChildFrames(LocatorHandler handler, WebDriver driver, Locator ploc, Deque<Integer> frameIndexList, List<Locator> selectedFrameLocators, List<?> tree, int depth) {
+        int iframeCount;
+        int frameCount;
+        if (tree != null) {
+            iframeCount = ((Number) tree.get(0)).intValue();
+            frameCount = ((Number) tree.get(1)).intValue();
+        } else {
+            iframeCount = driver.findElements(By.tagName("iframe")).size();
+            frameCount = -1; // counted after searching iframes.
+        }
         for (int index = 0; index < iframeCount; index++) {
-            pushFrame(driver, ploc, index);
-            result = findElementsByLocator(handler, driver, ploc, selectedFrameLocators);
+            pushFrame(driver, frameIndexList, index);
+            List<WebElement> result = findElementsInFrameTree(handler, driver, ploc, frameIndexList, selectedFrameLocators, getChildFrameTree(tree, index), depth - 1);
             if (result != null)
                 return result;
-            popFrame(driver, ploc, selectedFrameLocators);
+            popFrame(driver, frameIndexList, selectedFrameLocators);
         }
-        int frameCount = driver.findElements(By.tagName("frame")).size();
+        if (frameCount < 0)
+            frameCount = driver.findElements(By.tagName("frame")).size();
         for (int index = 0; index < frameCount; index++) {
-            pushFrame(driver, ploc, index);
-            result = findElementsByLocator(handler, driver, ploc, selectedFrameLocators);
+            pushFrame(driver, frameIndexList, index);
+            List<WebElement> result = findElementsInFrameTree(handler, driver, ploc, frameIndexList, selectedFrameLocators, getChildFrameTree(tree, index), depth - 1);
             if (result != null)
                 return result;
-            popFrame(driver, ploc, selectedFrameLocators);
+            popFrame(driver, frameIndexList, selectedFrameLocators);
         }
         return null;
     }
@@ -213,13 +712,29 @@ public class WebDriverElementFinder extends ElementFinder {
         return result;
     }
 
-    private List<WebElement> findElementsInternal(WebDriver driver, Locator ploc, List<Locator> selectedFrameLocators) {
+    private LocatorHandler getHandler(Locator ploc) {
         LocatorHandler handler = handlerMap.get(ploc.type);
         if (handler == null)
             throw new UnsupportedOperationException("Unknown locator type: " + ploc);
-        List<WebElement> elements = findElementsByLocator(handler, driver, ploc, selectedFrameLocators);
+        return handler;
+    }
+
+    private static SeleniumException newNotFoundException(Locator ploc) {
+        return new SeleniumException("Element " + ploc + " not found", new NoSuchElementException(ploc.toString()));
+    }
+
+    private List<WebElement> findElementsInternal(WebDriver driver, Locator ploc, Deque<Integer> frameIndexList, List<Locator> selectedFrameLocators) {
+        List<WebElement> elements = findElementsByLocator(getHandler(ploc), driver, ploc, frameIndexList, selectedFrameLocators);
         if (elements == null)
-            throw new SeleniumException("Element " + ploc + " not found", new NoSuchElementException(ploc.toString()));
+            throw newNotFoundException(ploc);
+        return filterElementsByOptionLocator(elements, ploc.option);
+    }
+
+    // same as findElementsInternal() except that the elements are known not to be in the selected frame.
+    private List<WebElement> findElementsInOtherFrames(WebDriver driver, Locator ploc, Deque<Integer> frameIndexList, List<Locator> selectedFrameLocators) {
+        List<WebElement> elements = findElementsInDescendantFrames(getHandler(ploc), driver, ploc, frameIndexList, selectedFrameLocators);
+        if (elements == null)
+            throw newNotFoundException(ploc);
         return filterElementsByOptionLocator(elements, ploc.option);
     }
 
@@ -232,10 +747,11 @@ public class WebDriverElementFinder extends ElementFinder {
      * @return list of found elements. (empty if no element)
      */
     public List<WebElement> findElements(WebDriver driver, String locator, List<Locator> selectedFrameLocators) {
-        Locator ploc = new Locator(locator);
+        Locator ploc = parseLocator(locator);
         if (ploc.isTypeRelative()) {
             if (ploc.isRelativeTop()) {
                 driver.switchTo().defaultContent();
+                setSwitchedFrame(driver, Collections.<Locator> emptyList());
             } else if (ploc.isRelativeParent()) {
                 int size = selectedFrameLocators.size();
                 if (size > 0)
@@ -246,8 +762,29 @@ public class WebDriverElementFinder extends ElementFinder {
                 throw new SeleniumException("Invalid \"relative\" locator argument: " + ploc.arg);
             }
             return Arrays.asList(driver.switchTo().activeElement());
-        } else if (ploc.isTypeIndex()) {
+        }
+        if (!switchToFrame(driver, selectedFrameLocators))
+            return findElementsInSelectedFrame(driver, locator, ploc, selectedFrameLocators);
+        try {
+            return findElementsInSelectedFrame(driver, locator, ploc, selectedFrameLocators);
+        } catch (RuntimeException e) {
+            // the driver may have left the selected frame by page transition and so on.
+            if (!isLeftFromFrame(e))
+                throw e;
+            log.debug("Retry to find element after switching frame from the top: {}", e.getMessage());
+            invalidateSwitchedFrame();
             switchToFrame(driver, selectedFrameLocators);
+            return findElementsInSelectedFrame(driver, locator, ploc, selectedFrameLocators);
+        }
+    }
+
+    private static boolean isLeftFromFrame(RuntimeException e) {
+        return ExceptionUtils.indexOfType(e, NoSuchFrameException.class) >= 0
+            || ExceptionUtils.indexOfType(e, StaleElementReferenceException.class) >= 0;
+    }
+
+    private List<WebElement> findElementsInSelectedFrame(WebDriver driver, String locator, Locator ploc, List<Locator> selectedFrameLocators) {
+        if (ploc.isTypeIndex()) {
             List<WebElement> frames = driver.findElements(By.tagName("iframe"));
             if (frames.isEmpty())
                 frames = driver.findElements(By.tagName("frame"));
@@ -255,10 +792,17 @@ public class WebDriverElementFinder extends ElementFinder {
             if (index < 0 || index >= frames.size())
                 throw new SeleniumException("\"index\" locator argument is out of range: " + ploc.arg);
             return Arrays.asList(frames.get(index));
-        } else {
-            switchToFrame(driver, selectedFrameLocators);
-            return findElementsInternal(driver, ploc, selectedFrameLocators);
         }
+        List<WebElement> elements;
+        Deque<Integer> frameIndexList = new ArrayDeque<Integer>();
+        if (isCacheEnabled && isCacheable(ploc))
+            elements = findElementsWithCache(driver, locator, ploc, frameIndexList, selectedFrameLocators);
+        else
+            elements = findElementsInternal(driver, ploc, frameIndexList, selectedFrameLocators);
+        // the driver is left in the descendant frame which has the elements.
+        if (!frameIndexList.isEmpty())
+            invalidateSwitchedFrame();
+        return elements;
     }
 
     /**
@@ -289,6 +833,82 @@ public class WebDriverElementFinder extends ElementFinder {
         return findElements(driver, locator).get(0);
     }
 
+    private boolean isBatchable(Locator ploc) {
+        if (ploc.option != null || !batchableTypes.contains(ploc.type))
+            return false;
+        // "name" and "identifier" locators may have a filter such as "name=foo value=bar".
+        return !(Locator.NAME.equals(ploc.type) || Locator.IDENTIFIER.equals(ploc.type)) || !StringUtils.containsWhitespace(ploc.arg);
+    }
+
+    /**
+     * Find elements of specified locators.
+     * <p>
+     * The css, xpath, id, name and identifier locators are resolved in the selected frame by a single script call.
+     * The other locators, and the locators not found in the selected frame, are resolved one by one
+     * in the same way as {@link #findElements(WebDriver, String, List)}.
+     * If the element cache is enabled, all locators are resolved one by one through the cache.
+     * </p>
+     *
+     * @param driver WebDriver.
+     * @param locators locators.
+     * @param selectedFrameLocators selected frame locators.
+     * @return list of found elements for each locator.
+     */
+    public List<List<WebElement>> findElementsBatch(WebDriver driver, List<String> locators, List<Locator> selectedFrameLocators) {
+        List<List<WebElement>> result = new ArrayList<List<WebElement>>(locators.size());
+        List<?> batchResult = null;
+        if (!isCacheEnabled && driver instanceof JavascriptExecutor) {
+            List<List<String>> batchLocators = new ArrayList<List<String>>(locators.size());
+            int batchCount = 0;
+            for (String locator : locators) {
+                Locator ploc = parseLocator(locator);
+                if (isBatchable(ploc)) {
+                    String arg = Locator.CSS.equals(ploc.type) ? CSSHandler.fixCssSelector(ploc.arg) : ploc.arg;
+                    batchLocators.add(Arrays.asList(ploc.type, arg));
+                    batchCount++;
+                } else {
+                    batchLocators.add(Arrays.asList("", ""));
+                }
+            }
+            // a single locator is not worth a script call.
+            if (batchCount >= 2) {
+                switchToFrame(driver, selectedFrameLocators);
+                try {
+                    Object value = ((JavascriptExecutor) driver).executeScript(BATCH_SCRIPT, batchLocators);
+                    if (value instanceof List && ((List<?>) value).size() == locators.size())
+                        batchResult = (List<?>) value;
+                } catch (WebDriverException e) {
+                    log.debug("Failed to find elements by batch: {}", e.getMessage());
+                    invalidateSwitchedFrame();
+                }
+            }
+        }
+        for (int i = 0; i < locators.size(); i++) {
+            Object elements = batchResult != null ? batchResult.get(i) : null;
+            if (elements instanceof List) {
+                List<WebElement> found = new ArrayList<WebElement>();
+                for (Object element : (List<?>) elements)
+                    found.add((WebElement) element);
+                result.add(found);
+            } else {
+                result.add(findElements(driver, locators.get(i), selectedFrameLocators));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find elements of specified locators.
+     *
+     * @param driver WebDriver.
+     * @param locators locators.
+     * @return list of found elements for each locator.
+     * @see #findElementsBatch(WebDriver, List, List)
+     */
+    public List<List<WebElement>> findElementsBatch(WebDriver driver, List<String> locators) {
+        return findElementsBatch(driver, locators, currentFrameLocators);
+    }
+
     /**
      * Select frame or iframe.
      *
@@ -296,11 +916,12 @@ public class WebDriverElementFinder extends ElementFinder {
      * @param locator locator to frame/iframe.
      */
     public void selectFrame(WebDriver driver, String locator) {
-        Locator ploc = new Locator(locator);
+        Locator ploc = parseLocator(locator);
         if (ploc.isTypeRelative()) {
             if (ploc.isRelativeTop()) {
                 driver.switchTo().defaultContent();
                 currentFrameLocators.clear();
+                setSwitchedFrame(driver, currentFrameLocators);
             } else if (ploc.isRelativeParent()) {
                 int size = currentFrameLocators.size();
                 if (size > 0) {
@@ -320,13 +941,15 @@ public class WebDriverElementFinder extends ElementFinder {
             } catch (NoSuchFrameException e) {
                 throw new SeleniumException(e);
             }
-            ploc.frameIndexList.add(index);
-            currentFrameLocators.add(ploc);
+            currentFrameLocators.add(ploc.withFrameIndexList(Collections.singletonList(index)));
+            setSwitchedFrame(driver, currentFrameLocators);
         } else {
             switchToFrame(driver, currentFrameLocators);
-            WebElement frame = findElementsInternal(driver, ploc, currentFrameLocators).get(0);
+            Deque<Integer> frameIndexList = new ArrayDeque<Integer>();
+            WebElement frame = findElementsInternal(driver, ploc, frameIndexList, currentFrameLocators).get(0);
             driver.switchTo().frame(frame);
-            currentFrameLocators.add(ploc);
+            currentFrameLocators.add(ploc.withFrameIndexList(frameIndexList));
+            setSwitchedFrame(driver, currentFrameLocators);
         }
     }
 
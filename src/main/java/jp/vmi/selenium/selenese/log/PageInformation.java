@@ -6,11 +6,13 @@ import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
 import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.NotFoundException;
 import org.openqa.selenium.UnhandledAlertException;
 import org.openqa.selenium.WebDriver;
 
 import jp.vmi.selenium.selenese.Context;
+import jp.vmi.selenium.selenese.locator.WebDriverElementFinder;
 
 /**
  * Page information.
@@ -20,9 +22,13 @@ public class PageInformation {
 
     public static final PageInformation EMPTY = new PageInformation();
 
+    // URL, title and cookies of top-level browsing context in one round trip.
+    private static final String CAPTURE_SCRIPT = "var w = window.top; return [w.location.href, w.document.title, w.document.cookie];";
+
     public final String message;
     public final String origin; // error if origin is null.
     public final CookieMap cookieMap = new CookieMap();
+    public final boolean isCapturedByScript; // cookieMap lacks HttpOnly cookies, domain and path if true.
 
     private String getMessage(Exception e) {
         String msg = e.getMessage();
@@ -49,7 +55,13 @@ public class PageInformation {
             String handle = driver.getWindowHandle();
             if (StringUtils.isEmpty(handle))
                 throw new NotFoundException();
-            driver.switchTo().window(handle);
+            // URL and title are taken from the top-level browsing context, but cookies are taken from the current one.
+            WebDriverElementFinder elementFinder = context.getElementFinder();
+            if (elementFinder == null || !elementFinder.isSwitchedToDefaultContent(driver)) {
+                driver.switchTo().defaultContent();
+                if (elementFinder != null)
+                    elementFinder.invalidateSwitchedFrame();
+            }
             String url = driver.getCurrentUrl();
             String title = driver.getTitle();
             message = formatUrlAndTitle(url, title);
@@ -68,11 +80,58 @@ public class PageInformation {
         }
         this.message = message;
         this.origin = origin;
+        this.isCapturedByScript = false;
     }
 
     private PageInformation() {
         this.message = "";
         this.origin = "";
+        this.isCapturedByScript = false;
+    }
+
+    private PageInformation(String url, String title, String cookies) {
+        this.message = formatUrlAndTitle(url, title);
+        this.origin = getOrigin(url);
+        this.isCapturedByScript = true;
+        if (StringUtils.isEmpty(cookies))
+            return;
+        for (String cookie : cookies.split(";")) {
+            cookie = cookie.trim();
+            if (cookie.isEmpty())
+                continue;
+            int eq = cookie.indexOf('=');
+            String name = eq >= 0 ? cookie.substring(0, eq) : "";
+            String value = eq >= 0 ? cookie.substring(eq + 1) : cookie;
+            CookieKey key = new CookieKey(name, null, null);
+            cookieMap.put(key, new CookieValue(key, value, null));
+        }
+    }
+
+    /**
+     * Capture page information by a single JavaScript call.
+     * <p>
+     * The cookies are only ones visible from "document.cookie" (excluding HttpOnly cookies).
+     * If the script cannot be executed, this falls back to {@link #PageInformation(Context)}.
+     * </p>
+     *
+     * @param context Selenese Runner context.
+     * @return page information.
+     */
+    public static PageInformation captureByScript(Context context) {
+        WebDriver driver = context.getWrappedDriver();
+        if (driver instanceof JavascriptExecutor) {
+            try {
+                Object result = ((JavascriptExecutor) driver).executeScript(CAPTURE_SCRIPT);
+                if (result instanceof List && ((List<?>) result).size() == 3) {
+                    List<?> values = (List<?>) result;
+                    if (values.get(0) instanceof String)
+                        return new PageInformation((String) values.get(0), (String) values.get(1), (String) values.get(2));
+                }
+            } catch (Exception e) {
+                // fall back to WebDriver API.
+            }
+        }
+        return new PageInformation(context);
     }
 
     private String formatUrlAndTitle(String url, String title) {
@@ -103,4 +162,8 @@ public class PageInformation {
     public boolean isSameOrigin(PageInformation other) {
         return origin != null && origin.equals(other.origin);
     }
+
+    public boolean isComparableCookies(PageInformation other) {
+        return isSameOrigin(other) && isCapturedByScript == other.isCapturedByScript;
+    }
 }
@@ -0,0 +1,73 @@
+package jp.vmi.selenium.selenese.log;
+
+/**
+ * Mode of logging page information.
+ */
+public enum PageInformationMode {
+
+    /** don't log page information. */
+    NONE("none"),
+
+    /** log page information on commands which may change the page, and failed commands. */
+    ON_CHANGE("on-change"),
+
+    /** log page information on failed commands only. */
+    ON_FAIL("on-fail"),
+
+    /** log page information on all commands. */
+    ALWAYS("always");
+
+    /**
+     * Value in command line option.
+     */
+    public final String value;
+
+    private PageInformationMode(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Lookup mode by value in command line option.
+     *
+     * @param value value in command line option.
+     * @return mode.
+     * @throws IllegalArgumentException invalid value.
+     */
+    public static PageInformationMode lookup(String value) throws IllegalArgumentException {
+        for (PageInformationMode mode : values())
+            if (mode.value.equalsIgnoreCase(value))
+                return mode;
+        throw new IllegalArgumentException("Invalid page information mode: " + value);
+    }
+
+    /**
+     * May the command change the page?
+     * <p>
+     * This is detected cheaply by the command name.
+     * </p>
+     *
+     * @param name command name.
+     * @return true if the command may change URL, title or cookies.
+     */
+    public static boolean mayChangePage(String name) {
+        if (name.startsWith("click") || name.endsWith("AndWait"))
+            return true;
+        switch (name) {
+        case "open":
+        case "openWindow":
+        case "submit":
+        case "refresh":
+        case "goBack":
+        case "close":
+        case "selectWindow":
+        case "selectPopUp":
+        case "deselectPopUp":
+        case "deleteCookie":
+        case "deleteAllVisibleCookies":
+        case "createCookie":
+            return true;
+        default:
+            return false;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package jp.vmi.selenium.selenese.result;
 
 import java.util.List;
 
+import jp.vmi.selenium.selenese.command.CommandSequence;
 import jp.vmi.selenium.selenese.command.ICommand;
 import jp.vmi.selenium.selenese.command.Screenshot;
 
@@ -10,12 +11,13 @@ import jp.vmi.selenium.selenese.command.Screenshot;
  */
 public class CommandResult {
 
-    private final String sequence;
+    private final CommandSequence.Snapshot sequence;
     private final ICommand command;
     private final List<Screenshot> screenshots;
     private final Result result;
     private final long startTime; // ms
     private final long endTime; // ms
+    private final long waitTime; // ms
 
     /**
      * Constructor.
@@ -28,12 +30,43 @@ public class CommandResult {
      * @param endTime end time.
      */
     public CommandResult(String sequence, ICommand command, List<Screenshot> screenshots, Result result, long startTime, long endTime) {
+        this(sequence != null ? CommandSequence.Snapshot.valueOf(sequence) : null, command, screenshots, result, startTime, endTime, 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sequence snapshot of sequence, which is formatted when {@link #getSequence()} is called.
+     * @param command command.
+     * @param screenshots list of screenshot information.
+     * @param result the result of above command.
+     * @param startTime start time.
+     * @param endTime end time.
+     */
+    public CommandResult(CommandSequence.Snapshot sequence, ICommand command, List<Screenshot> screenshots, Result result, long startTime, long endTime) {
+        this(sequence, command, screenshots, result, startTime, endTime, 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sequence snapshot of sequence, which is formatted when {@link #getSequence()} is called.
+     * @param command command.
+     * @param screenshots list of screenshot information.
+     * @param result the result of above command.
+     * @param startTime start time.
+     * @param endTime end time.
+     * @param waitTime time spent in waiting for conditions.
+     */
+    public CommandResult(CommandSequence.Snapshot sequence, ICommand command, List<Screenshot> screenshots, Result result, long startTime, long endTime,
+        long waitTime) {
         this.sequence = sequence;
         this.command = command;
         this.screenshots = screenshots;
         this.result = result;
         this.startTime = startTime;
         this.endTime = endTime;
+        this.waitTime = waitTime;
     }
 
     /**
@@ -42,7 +75,7 @@ public class CommandResult {
      * @return sequenc.
      */
     public String getSequence() {
-        return sequence;
+        return sequence != null ? sequence.toString() : null;
     }
 
     /**
@@ -98,4 +131,13 @@ public class CommandResult {
     public long getDuration() {
         return endTime - startTime;
     }
+
+    /**
+     * Get time spent in waiting for conditions. (e.g. "waitFor*" and "waitForCondition")
+     *
+     * @return wait time. (ms)
+     */
+    public long getWaitTime() {
+        return waitTime;
+    }
 }
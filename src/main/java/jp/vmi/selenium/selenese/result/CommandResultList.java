@@ -2,23 +2,32 @@ package jp.vmi.selenium.selenese.result;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 
 import jp.vmi.selenium.selenese.command.ICommand;
+import jp.vmi.selenium.selenese.result.Result.Level;
 
 import static jp.vmi.selenium.selenese.result.Unexecuted.*;
 
 /**
  * List of command result.
+ * <p>
+ * The results of each command and the number of commands for each result level are updated
+ * whenever a result is added, so that reporting does not need to scan all results.
+ * </p>
  */
 public class CommandResultList implements List<CommandResult> {
 
     private final List<CommandResult> list = new ArrayList<CommandResult>();
     private Result result = UNEXECUTED;
     private long endTime = System.currentTimeMillis();
-    private CommandResultMap map = null;
+    private final Map<ICommand, List<CommandResult>> resultsMap = new IdentityHashMap<ICommand, List<CommandResult>>();
+    // number of commands for each level of their latest result.
+    private final int[] commandCounts = new int[Level.values().length];
 
     @Override
     public int size() {
@@ -35,6 +44,14 @@ public class CommandResultList implements List<CommandResult> {
         if (result.compareTo(cresult.getResult()) < 0)
             result = cresult.getResult();
         list.add(cresult);
+        ICommand command = cresult.getCommand();
+        List<CommandResult> results = resultsMap.get(command);
+        if (results == null)
+            resultsMap.put(command, results = new ArrayList<CommandResult>(1));
+        else
+            commandCounts[results.get(results.size() - 1).getResult().getLevel().ordinal()]--;
+        results.add(cresult);
+        commandCounts[cresult.getResult().getLevel().ordinal()]++;
         long endTime = cresult.getEndTime();
         if (this.endTime < endTime)
             this.endTime = endTime;
@@ -118,9 +135,17 @@ public class CommandResultList implements List<CommandResult> {
      * @return results.
      */
     public List<CommandResult> getResults(ICommand command) {
-        if (map == null)
-            map = new CommandResultMap(this);
-        return map.get(command);
+        return resultsMap.get(command);
+    }
+
+    /**
+     * Get number of commands whose latest result is the specified level.
+     *
+     * @param level result level.
+     * @return number of commands.
+     */
+    public int getCommandCount(Level level) {
+        return commandCounts[level.ordinal()];
     }
 
     /**
@@ -11,7 +11,10 @@ import jp.vmi.selenium.selenese.command.ICommand;
 
 /**
  * CommandResult map for chaching.
+ *
+ * @deprecated use {@link CommandResultList#getResults(ICommand)} instead of this. This will be removed in the future.
  */
+@Deprecated
 public class CommandResultMap implements Map<ICommand, List<CommandResult>> {
 
     private final IdentityHashMap<ICommand, List<CommandResult>> map;
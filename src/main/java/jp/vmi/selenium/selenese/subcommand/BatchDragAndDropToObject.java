@@ -0,0 +1,36 @@
+package jp.vmi.selenium.selenese.subcommand;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.Actions;
+
+import com.thoughtworks.selenium.webdriven.SeleneseCommand;
+
+import jp.vmi.selenium.selenese.locator.WebDriverElementFinder;
+
+/**
+ * Command "dragAndDropToObject" which resolves both locators at once.
+ */
+public class BatchDragAndDropToObject extends SeleneseCommand<Void> {
+
+    private final WebDriverElementFinder finder;
+
+    /**
+     * Constructor.
+     *
+     * @param finder element finder.
+     */
+    public BatchDragAndDropToObject(WebDriverElementFinder finder) {
+        this.finder = finder;
+    }
+
+    @Override
+    protected Void handleSeleneseCommand(WebDriver driver, String draggable, String droppable) {
+        List<List<WebElement>> elements = finder.findElementsBatch(driver, Arrays.asList(draggable, droppable));
+        new Actions(driver).dragAndDrop(elements.get(0).get(0), elements.get(1).get(0)).perform();
+        return null;
+    }
+}
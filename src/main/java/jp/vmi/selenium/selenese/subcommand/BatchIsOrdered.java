@@ -0,0 +1,49 @@
+package jp.vmi.selenium.selenese.subcommand;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import com.thoughtworks.selenium.webdriven.JavascriptLibrary;
+import com.thoughtworks.selenium.webdriven.SeleneseCommand;
+
+import jp.vmi.selenium.selenese.locator.WebDriverElementFinder;
+
+/**
+ * Command "isOrdered" which resolves both locators at once.
+ */
+public class BatchIsOrdered extends SeleneseCommand<Boolean> {
+
+    private static final String SCRIPT = ""
+        + "if (arguments[0] === arguments[1]) return false;\n"
+        + "var previousSibling;\n"
+        + "while ((previousSibling = arguments[1].previousSibling) != null) {\n"
+        + "  if (previousSibling === arguments[0])\n"
+        + "    return true;\n"
+        + "  arguments[1] = previousSibling;\n"
+        + "}\n"
+        + "return false;";
+
+    private final WebDriverElementFinder finder;
+    private final JavascriptLibrary js;
+
+    /**
+     * Constructor.
+     *
+     * @param finder element finder.
+     * @param js JavaScript library.
+     */
+    public BatchIsOrdered(WebDriverElementFinder finder, JavascriptLibrary js) {
+        this.finder = finder;
+        this.js = js;
+    }
+
+    @Override
+    protected Boolean handleSeleneseCommand(WebDriver driver, String locator1, String locator2) {
+        List<List<WebElement>> elements = finder.findElementsBatch(driver, Arrays.asList(locator1, locator2));
+        Boolean result = (Boolean) js.executeScript(driver, SCRIPT, elements.get(0).get(0), elements.get(1).get(0));
+        return result != null && result;
+    }
+}
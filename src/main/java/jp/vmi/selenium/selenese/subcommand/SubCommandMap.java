@@ -20,6 +20,7 @@ import static jp.vmi.selenium.selenese.command.ArgumentType.*;
 public class SubCommandMap {
 
     private final Map<String, ISubCommand<?>> subCommands = Maps.newHashMap();
+    private volatile int version = 0;
     private final boolean enableAlertOverrides = true;
 
     private final JavascriptLibrary javascriptLibrary;
@@ -88,7 +89,7 @@ public class SubCommandMap {
         register(new DoubleClick(alertOverride, elementFinder), "doubleClick", LOCATOR);
         register(new DragAndDrop(elementFinder), "dragdrop", LOCATOR, VALUE);
         register(new DragAndDrop(elementFinder), "dragAndDrop", LOCATOR, VALUE);
-        register(new DragAndDropToObject(elementFinder), "dragAndDropToObject", LOCATOR, LOCATOR);
+        register(new BatchDragAndDropToObject(elementFinder), "dragAndDropToObject", LOCATOR, LOCATOR);
         register(new FireEvent(elementFinder, javascriptLibrary), "fireEvent", LOCATOR, VALUE);
         register(new FireNamedEvent(elementFinder, javascriptLibrary, "focus"), "focus", LOCATOR);
         register(new GetAlert(alertOverride), "getAlert");
@@ -136,7 +137,7 @@ public class SubCommandMap {
         register(new IsCookiePresent(), "isCookiePresent", VALUE);
         register(new IsEditable(elementFinder), "isEditable", LOCATOR);
         register(new IsElementPresent(elementFinder), "isElementPresent", LOCATOR);
-        register(new IsOrdered(elementFinder, javascriptLibrary), "isOrdered", LOCATOR, LOCATOR);
+        register(new BatchIsOrdered(elementFinder, javascriptLibrary), "isOrdered", LOCATOR, LOCATOR);
         // "isSomethingSelected"
         register(new IsTextPresent(javascriptLibrary), "isTextPresent", VALUE);
         register(new IsVisible(elementFinder), "isVisible", LOCATOR);
@@ -214,6 +215,7 @@ public class SubCommandMap {
      */
     public void register(SeleneseCommand<?> seleneseCommand, String name, ArgumentType... argTypes) {
         subCommands.put(name, new WDCommand(seleneseCommand, name, argTypes));
+        version++;
     }
 
     /**
@@ -223,6 +225,19 @@ public class SubCommandMap {
      */
     public void register(ISubCommand<?> subCommand) {
         subCommands.put(subCommand.getName(), subCommand);
+        version++;
+    }
+
+    /**
+     * Get version of this map.
+     * <p>
+     * It is changed whenever a sub-command is registered.
+     * </p>
+     *
+     * @return version.
+     */
+    public int getVersion() {
+        return version;
     }
 
     /**
@@ -3,6 +3,7 @@ package jp.vmi.selenium.selenese.subcommand;
 import org.openqa.selenium.TimeoutException;
 
 import jp.vmi.selenium.selenese.Context;
+import jp.vmi.selenium.selenese.utils.Waiter;
 
 import static jp.vmi.selenium.selenese.command.ArgumentType.*;
 
@@ -11,8 +12,6 @@ import static jp.vmi.selenium.selenese.command.ArgumentType.*;
  */
 public class WaitForCondition extends AbstractSubCommand<Void> {
 
-    private static final long DEFAULT_INTERVAL = 500L;
-
     private static final int ARG_SCRIPT = 0;
     private static final int ARG_TIMEOUT = 1;
 
@@ -40,12 +39,21 @@ public class WaitForCondition extends AbstractSubCommand<Void> {
         String script = args[ARG_SCRIPT];
         long timeout = Long.valueOf(args[ARG_TIMEOUT]);
 
-        long end = System.currentTimeMillis() + timeout;
-        while (System.currentTimeMillis() < end) {
+        Waiter waiter = new Waiter(timeout, context.getPollingPolicy());
+        // poll in the browser by one round trip, and fall back to polling by WebDriver if it is not available.
+        Boolean satisfied = context.getEval().waitFor(context.getWrappedDriver(), script, timeout, context.getPollingPolicy());
+        if (satisfied != null) {
+            if (satisfied)
+                return null;
+            throw new TimeoutException("Failed to resolve " + script);
+        }
+        while (true) {
             if (until(context, script))
                 return null;
+            if (waiter.isTimedOut())
+                break;
             try {
-                Thread.sleep(DEFAULT_INTERVAL);
+                waiter.sleep();
             } catch (InterruptedException e) {
                 throw new RuntimeException(e);
             }
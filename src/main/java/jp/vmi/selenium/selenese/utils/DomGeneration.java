@@ -0,0 +1,83 @@
+package jp.vmi.selenium.selenese.utils;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * DOM generation counted by a MutationObserver in the browser.
+ * <p>
+ * {@link #FUNCTION} defines "domGeneration()" in the script. It returns "ID:COUNT" which is changed by any DOM mutation
+ * or page transition, or null if MutationObserver is unavailable. The observer is attached to the document once,
+ * and functions in "window.__seleneseRunnerDomGeneration.listeners" are called by the next mutation.
+ * </p>
+ * <p>
+ * The drivers which do not support MutationObserver are remembered by {@link #setUnsupported(WebDriver)}.
+ * </p>
+ */
+public class DomGeneration {
+
+    /**
+     * Script defining "domGeneration()".
+     */
+    public static final String FUNCTION = ""
+        + "var domGeneration = function() {\n"
+        + "  var g = window.__seleneseRunnerDomGeneration;\n"
+        + "  if (g === undefined) {\n"
+        + "    g = null;\n"
+        + "    try {\n"
+        // check that MutationObserver really reports mutations.
+        + "      var d = document.createElement('div');\n"
+        + "      var t = new MutationObserver(function() {});\n"
+        + "      t.observe(d, {childList: true, subtree: true, attributes: true, characterData: true});\n"
+        + "      d.appendChild(document.createElement('span'));\n"
+        + "      d.setAttribute('title', 'test');\n"
+        + "      var r = t.takeRecords();\n"
+        + "      t.disconnect();\n"
+        + "      if (r && r.length === 2) {\n"
+        + "        var ng = {id: new Date().getTime().toString(36) + Math.random().toString(36).substring(2), count: 0, listeners: []};\n"
+        + "        new MutationObserver(function() {\n"
+        + "          ng.count++;\n"
+        + "          var ls = ng.listeners.slice();\n"
+        + "          for (var i = 0; i < ls.length; i++) ls[i]();\n"
+        + "        }).observe(document, {childList: true, subtree: true, attributes: true, characterData: true});\n"
+        + "        g = ng;\n"
+        + "      }\n"
+        + "    } catch (e) {}\n"
+        + "    window.__seleneseRunnerDomGeneration = g;\n"
+        + "  }\n"
+        + "  return g ? g.id + ':' + g.count : null;\n"
+        + "};\n";
+
+    // guarded by itself.
+    private static final Set<WebDriver> unsupportedDrivers = Collections.newSetFromMap(new WeakHashMap<WebDriver, Boolean>());
+
+    private DomGeneration() {
+        // no operation
+    }
+
+    /**
+     * Is DOM generation supported by the driver?
+     *
+     * @param driver WebDriver.
+     * @return false if it is known that MutationObserver is unavailable.
+     */
+    public static boolean isSupported(WebDriver driver) {
+        synchronized (unsupportedDrivers) {
+            return !unsupportedDrivers.contains(driver);
+        }
+    }
+
+    /**
+     * Remember that the driver does not support DOM generation.
+     *
+     * @param driver WebDriver.
+     */
+    public static void setUnsupported(WebDriver driver) {
+        synchronized (unsupportedDrivers) {
+            unsupportedDrivers.add(driver);
+        }
+    }
+}
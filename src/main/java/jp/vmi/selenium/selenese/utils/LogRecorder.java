@@ -1,15 +1,47 @@
 package jp.vmi.selenium.selenese.utils;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
 
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /**
  * Record log message.
+ * <p>
+ * If the buffer size is specified, only the latest messages are kept in memory.
+ * Older messages are spilled to a temporary file, and are read from it through a memory-mapped window of the file
+ * when {@link #getMessages()} or {@link #getErrorMessages()} is accessed.
+ * Error messages are recorded as indexes of all messages.
+ * </p>
+ * <p>
+ * The temporary file is deleted by {@link #close()}. After that, the spilled messages are no longer available.
+ * </p>
  */
 public class LogRecorder {
 
+    private static final Logger log = LoggerFactory.getLogger(LogRecorder.class);
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // date (long) + level (byte) + length of message (int)
+    private static final int HEADER_SIZE = 8 + 1 + 4;
+
+    private static final long MAP_WINDOW_SIZE = 64L * 1024 * 1024;
+
     /**
      * Log level.
      */
@@ -33,7 +65,7 @@ public class LogRecorder {
         public final String message;
 
         private LogMessage(long date, Level level, String message) {
-            this.date = System.currentTimeMillis();
+            this.date = date;
             this.level = level;
             this.message = message;
         }
@@ -44,11 +76,64 @@ public class LogRecorder {
         }
     }
 
+    private static final Level[] LEVELS = Level.values();
+
     private final PrintStream ps;
 
-    private final List<LogMessage> messages = new ArrayList<LogMessage>();
+    // maximum number of messages in memory. (0 means unlimited)
+    private int bufferSize;
+
+    // ring buffer of messages. messages[spilled, count) are in memory, and the i-th message is buffer[i % buffer.length].
+    private LogMessage[] buffer;
+    private int count = 0;
+    private int spilled = 0;
 
-    private final List<LogMessage> errorMessages = new ArrayList<LogMessage>();
+    // indexes of error messages.
+    private int[] errorIndexes = new int[INITIAL_CAPACITY];
+    private int errorCount = 0;
+
+    // spilled messages.
+    private File spillFile = null;
+    private DataOutputStream spillOut = null;
+    private long[] spillOffsets = null;
+    private long spillSize = 0;
+    private MappedByteBuffer spillMap = null;
+    private long spillMapStart = 0;
+    private boolean isClosed = false;
+
+    private final List<LogMessage> messageList = new AbstractList<LogMessage>() {
+
+        @Override
+        public LogMessage get(int index) {
+            return getMessage(index);
+        }
+
+        @Override
+        public int size() {
+            synchronized (LogRecorder.this) {
+                return count;
+            }
+        }
+    };
+
+    private final List<LogMessage> errorMessageList = new AbstractList<LogMessage>() {
+
+        @Override
+        public LogMessage get(int index) {
+            synchronized (LogRecorder.this) {
+                if (index < 0 || index >= errorCount)
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + errorCount);
+                return getMessage(errorIndexes[index]);
+            }
+        }
+
+        @Override
+        public int size() {
+            synchronized (LogRecorder.this) {
+                return errorCount;
+            }
+        }
+    };
 
     /**
      * Constructor.
@@ -56,7 +141,21 @@ public class LogRecorder {
      * @param ps PrintStream object.
      */
     public LogRecorder(PrintStream ps) {
+        this(ps, 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param ps PrintStream object.
+     * @param bufferSize maximum number of messages kept in memory. (0 means unlimited)
+     */
+    public LogRecorder(PrintStream ps, int bufferSize) {
+        if (bufferSize < 0)
+            throw new IllegalArgumentException("Invalid buffer size: " + bufferSize);
         this.ps = ps;
+        this.bufferSize = bufferSize;
+        this.buffer = new LogMessage[bufferSize > 0 ? Math.min(bufferSize, INITIAL_CAPACITY) : INITIAL_CAPACITY];
     }
 
     /**
@@ -68,6 +167,139 @@ public class LogRecorder {
         return System.currentTimeMillis();
     }
 
+    /**
+     * Get size of the memory-mapped window of the spill file. (override for test)
+     *
+     * @return window size. (bytes)
+     */
+    protected long getMapWindowSize() {
+        return MAP_WINDOW_SIZE;
+    }
+
+    private synchronized void record(LogMessage lmsg) {
+        if (count - spilled == buffer.length) {
+            if (bufferSize > 0 && buffer.length >= bufferSize)
+                spill();
+            else
+                grow();
+        }
+        if (lmsg.level == Level.ERROR) {
+            if (errorCount == errorIndexes.length)
+                errorIndexes = Arrays.copyOf(errorIndexes, errorCount * 2);
+            errorIndexes[errorCount++] = count;
+        }
+        buffer[count % buffer.length] = lmsg;
+        count++;
+    }
+
+    private void grow() {
+        int capacity = buffer.length * 2;
+        if (bufferSize > 0)
+            capacity = Math.min(capacity, bufferSize);
+        LogMessage[] newBuffer = new LogMessage[capacity];
+        for (int i = spilled; i < count; i++)
+            newBuffer[i % capacity] = buffer[i % buffer.length];
+        buffer = newBuffer;
+    }
+
+    // move the oldest message in memory to the spill file.
+    private void spill() {
+        if (isClosed) {
+            // the spill file has been deleted.
+            bufferSize = 0;
+            grow();
+            return;
+        }
+        int index = spilled % buffer.length;
+        LogMessage lmsg = buffer[index];
+        byte[] bytes = lmsg.message.getBytes(StandardCharsets.UTF_8);
+        try {
+            if (spillOut == null) {
+                spillFile = File.createTempFile("selenese-log-", ".bin");
+                spillFile.deleteOnExit();
+                spillOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(spillFile)));
+                spillOffsets = new long[INITIAL_CAPACITY];
+            }
+            spillOut.writeLong(lmsg.date);
+            spillOut.writeByte(lmsg.level.ordinal());
+            spillOut.writeInt(bytes.length);
+            spillOut.write(bytes);
+        } catch (IOException e) {
+            // keep all messages in memory instead.
+            log.warn("Failed to spill log messages to {}: {}", spillFile, e.getMessage());
+            bufferSize = 0;
+            grow();
+            return;
+        }
+        if (spilled == spillOffsets.length)
+            spillOffsets = Arrays.copyOf(spillOffsets, spilled * 2);
+        spillOffsets[spilled] = spillSize;
+        spillSize += HEADER_SIZE + bytes.length;
+        buffer[index] = null;
+        spilled++;
+    }
+
+    private synchronized LogMessage getMessage(int index) {
+        if (index < 0 || index >= count)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+        if (index >= spilled)
+            return buffer[index % buffer.length];
+        if (isClosed)
+            throw new IllegalStateException("Spilled log messages have been released by close().");
+        try {
+            long offset = spillOffsets[index];
+            ByteBuffer bb = mapSpill(offset, HEADER_SIZE);
+            long date = bb.getLong();
+            Level level = LEVELS[bb.get()];
+            byte[] bytes = new byte[bb.getInt()];
+            if (bb.remaining() < bytes.length)
+                bb = mapSpill(offset + HEADER_SIZE, bytes.length);
+            bb.get(bytes);
+            return new LogMessage(date, level, new String(bytes, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // get the buffer positioned at the offset of the spill file, which has at least specified size.
+    // the file is mapped by windows, because a mapped buffer is limited to 2GB.
+    private ByteBuffer mapSpill(long offset, int size) throws IOException {
+        if (spillMap == null || offset < spillMapStart || offset + size > spillMapStart + spillMap.capacity()) {
+            spillOut.flush();
+            long mapSize = Math.min(Math.max(getMapWindowSize(), size), spillSize - offset);
+            RandomAccessFile file = new RandomAccessFile(spillFile, "r");
+            try {
+                spillMap = file.getChannel().map(FileChannel.MapMode.READ_ONLY, offset, mapSize);
+                spillMapStart = offset;
+            } finally {
+                IOUtils.closeQuietly(file);
+            }
+        }
+        ByteBuffer bb = spillMap.duplicate();
+        bb.position((int) (offset - spillMapStart));
+        return bb;
+    }
+
+    /**
+     * Close this recorder and delete the spill file.
+     * <p>
+     * Call this after the reports of the test-case are written.
+     * The messages in memory are still available, but the spilled messages are not.
+     * </p>
+     */
+    public synchronized void close() {
+        if (isClosed)
+            return;
+        isClosed = true;
+        spillMap = null;
+        if (spillOut == null)
+            return;
+        IOUtils.closeQuietly(spillOut);
+        spillOut = null;
+        if (!spillFile.delete())
+            log.warn("Failed to delete {}. It will be deleted on exit.", spillFile);
+    }
+
     /**
      * Log info message.
      *
@@ -75,7 +307,7 @@ public class LogRecorder {
      */
     public void info(String message) {
         LogMessage lmsg = new LogMessage(now(), Level.INFO, message);
-        messages.add(lmsg);
+        record(lmsg);
         ps.println(lmsg);
     }
 
@@ -86,8 +318,7 @@ public class LogRecorder {
      */
     public void error(String message) {
         LogMessage lmsg = new LogMessage(now(), Level.ERROR, message);
-        messages.add(lmsg);
-        errorMessages.add(lmsg);
+        record(lmsg);
         ps.println(lmsg);
     }
 
@@ -97,7 +328,7 @@ public class LogRecorder {
      * @return messages.
      */
     public List<LogMessage> getMessages() {
-        return Collections.unmodifiableList(messages);
+        return messageList;
     }
 
     /**
@@ -106,6 +337,6 @@ public class LogRecorder {
      * @return error messages.
      */
     public List<LogMessage> getErrorMessages() {
-        return Collections.unmodifiableList(errorMessages);
+        return errorMessageList;
     }
 }
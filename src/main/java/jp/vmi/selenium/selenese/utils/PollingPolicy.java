@@ -0,0 +1,126 @@
+package jp.vmi.selenium.selenese.utils;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.commons.lang3.math.NumberUtils;
+
+/**
+ * Polling policy of waiting for conditions.
+ * <p>
+ * The delay starts from the initial delay, and is multiplied by the multiplier up to the maximum delay.
+ * If the jitter is positive, each delay is randomized within &plusmn;(jitter &times; delay).
+ * </p>
+ */
+public class PollingPolicy {
+
+    /** Default polling policy. (5ms, x2, up to 100ms, no jitter) */
+    public static final PollingPolicy DEFAULT = new PollingPolicy(5, 2.0, 100, 0.0);
+
+    private final long initialDelay;
+    private final double multiplier;
+    private final long maxDelay;
+    private final double jitter;
+
+    /**
+     * Constructor.
+     *
+     * @param initialDelay initial delay. (ms)
+     * @param multiplier multiplier of delay. (1.0 or more)
+     * @param maxDelay maximum delay. (ms)
+     * @param jitter ratio of jitter. (0.0 - 1.0)
+     */
+    public PollingPolicy(long initialDelay, double multiplier, long maxDelay, double jitter) {
+        if (initialDelay <= 0 || multiplier < 1.0 || maxDelay < initialDelay || jitter < 0.0 || jitter > 1.0)
+            throw new IllegalArgumentException(String.format("Invalid polling policy. (initial=%d, multiplier=%s, max=%d, jitter=%s)",
+                initialDelay, multiplier, maxDelay, jitter));
+        this.initialDelay = initialDelay;
+        this.multiplier = multiplier;
+        this.maxDelay = maxDelay;
+        this.jitter = jitter;
+    }
+
+    /**
+     * Parse polling policy.
+     *
+     * @param policy "INITIAL:MULTIPLIER:MAX[:JITTER]".
+     * @return polling policy.
+     */
+    public static PollingPolicy parse(String policy) {
+        String[] values = policy.split(":");
+        if (values.length < 3 || values.length > 4)
+            throw new IllegalArgumentException("Invalid polling policy value. (" + policy + ")");
+        long initialDelay = NumberUtils.toLong(values[0], -1);
+        double multiplier = NumberUtils.toDouble(values[1], -1.0);
+        long maxDelay = NumberUtils.toLong(values[2], -1);
+        double jitter = values.length == 4 ? NumberUtils.toDouble(values[3], -1.0) : 0.0;
+        try {
+            return new PollingPolicy(initialDelay, multiplier, maxDelay, jitter);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid polling policy value. (" + policy + ")", e);
+        }
+    }
+
+    /**
+     * Get initial delay.
+     *
+     * @return initial delay. (ms)
+     */
+    public long getInitialDelay() {
+        return initialDelay;
+    }
+
+    /**
+     * Get multiplier of delay.
+     *
+     * @return multiplier.
+     */
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    /**
+     * Get maximum delay.
+     *
+     * @return maximum delay. (ms)
+     */
+    public long getMaxDelay() {
+        return maxDelay;
+    }
+
+    /**
+     * Get ratio of jitter.
+     *
+     * @return ratio of jitter.
+     */
+    public double getJitter() {
+        return jitter;
+    }
+
+    /**
+     * Get next delay without jitter.
+     *
+     * @param delay current delay. (ms)
+     * @return next delay. (ms)
+     */
+    public long nextDelay(long delay) {
+        return Math.min((long) Math.ceil(delay * multiplier), maxDelay);
+    }
+
+    /**
+     * Apply jitter to delay.
+     *
+     * @param delay delay. (ms)
+     * @return randomized delay. (ms)
+     */
+    public long applyJitter(long delay) {
+        if (jitter == 0.0)
+            return delay;
+        double ratio = 1.0 + jitter * (ThreadLocalRandom.current().nextDouble() * 2.0 - 1.0);
+        return Math.max(Math.round(delay * ratio), 1);
+    }
+
+    @Override
+    public String toString() {
+        return initialDelay + ":" + multiplier + ":" + maxDelay + ":" + jitter;
+    }
+}
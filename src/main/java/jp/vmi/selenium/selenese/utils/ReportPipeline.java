@@ -0,0 +1,173 @@
+package jp.vmi.selenium.selenese.utils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pipeline for writing reports in background.
+ * <p>
+ * Submitted tasks are executed by dedicated daemon threads. (one by one by default)
+ * If the queue is full, {@link #submit(Runnable)} blocks until the queue has room.
+ * The threads are kept alive until {@link #release()} is called, so that per-thread resources such as
+ * template engines are reused across reports. After that, the threads are terminated when they are idle for a while,
+ * and restarted by the next submission.
+ * </p>
+ */
+public class ReportPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportPipeline.class);
+
+    /** Default capacity of the queue. */
+    public static final int DEFAULT_QUEUE_SIZE = 16;
+
+    private static final long KEEP_ALIVE_TIME = 1000; // ms
+
+    private static final AtomicInteger threadNumber = new AtomicInteger(0);
+
+    private final ThreadPoolExecutor executor;
+
+    private volatile boolean isReleased = false;
+
+    // guarded by itself.
+    private final List<Future<?>> pendings = new ArrayList<Future<?>>();
+
+    /**
+     * Constructor.
+     */
+    public ReportPipeline() {
+        this(DEFAULT_QUEUE_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param queueSize capacity of the queue.
+     */
+    public ReportPipeline(int queueSize) {
+        this(1, queueSize);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param threads number of threads writing reports in parallel.
+     * @param queueSize capacity of the queue.
+     */
+    public ReportPipeline(int threads, int queueSize) {
+        if (threads <= 0)
+            throw new IllegalArgumentException("Invalid number of threads: " + threads);
+        ThreadFactory threadFactory = new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "report-writer-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+        RejectedExecutionHandler blockingHandler = new RejectedExecutionHandler() {
+            @Override
+            public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+                try {
+                    executor.getQueue().put(r);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException(e);
+                }
+                // the threads may have been terminated by idle timeout after release().
+                executor.prestartCoreThread();
+            }
+        };
+        BlockingQueue<Runnable> queue = new ArrayBlockingQueue<Runnable>(queueSize);
+        executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_TIME, TimeUnit.MILLISECONDS, queue, threadFactory, blockingHandler);
+    }
+
+    /**
+     * Submit a task writing a report.
+     *
+     * @param task task.
+     */
+    public void submit(Runnable task) {
+        if (isReleased) {
+            isReleased = false;
+            executor.allowCoreThreadTimeOut(false);
+        }
+        Future<?> future = executor.submit(task);
+        synchronized (pendings) {
+            for (Iterator<Future<?>> iter = pendings.iterator(); iter.hasNext();) {
+                Future<?> pending = iter.next();
+                // keep failed tasks to report them in drain().
+                if (pending.isDone() && getFailure(pending) == null)
+                    iter.remove();
+            }
+            pendings.add(future);
+        }
+    }
+
+    private static Throwable getFailure(Future<?> future) {
+        try {
+            future.get();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return e;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+    }
+
+    /**
+     * Wait until all submitted tasks are finished.
+     * <p>
+     * If some tasks failed, the first failure is thrown after all tasks are finished.
+     * </p>
+     */
+    public void drain() {
+        List<Future<?>> futures;
+        synchronized (pendings) {
+            futures = new ArrayList<Future<?>>(pendings);
+            pendings.clear();
+        }
+        Throwable first = null;
+        for (Future<?> future : futures) {
+            Throwable t = getFailure(future);
+            if (t == null)
+                continue;
+            if (first == null)
+                first = t;
+            else
+                log.error("Failed to write report: {}", t.getMessage());
+        }
+        if (first instanceof RuntimeException)
+            throw (RuntimeException) first;
+        else if (first instanceof java.lang.Error)
+            throw (java.lang.Error) first;
+        else if (first != null)
+            throw new RuntimeException(first);
+    }
+
+    /**
+     * Release the threads.
+     * <p>
+     * The threads are terminated when they are idle for a while.
+     * The pipeline is still available, and the threads are restarted by the next submission.
+     * </p>
+     */
+    public void release() {
+        isReleased = true;
+        executor.allowCoreThreadTimeOut(true);
+    }
+}
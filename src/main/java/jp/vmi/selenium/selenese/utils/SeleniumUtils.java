@@ -1,6 +1,8 @@
 package jp.vmi.selenium.selenese.utils;
 
 import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
@@ -14,9 +16,20 @@ public class SeleniumUtils {
 
     /**
      * string-matching pattern of SeleniumIDE.
+     * <p>
+     * Instances are immutable, and shared by {@link #compile(String)}.
+     * </p>
      */
     public static class SeleniumPattern {
 
+        /**
+         * Maximum number of compiled patterns to be cached.
+         */
+        public static final int MAX_CACHE_SIZE = 1024;
+
+        // lookups don't lock. when the cache is full, an arbitrary entry is evicted.
+        private static final Map<String, SeleniumPattern> cache = new ConcurrentHashMap<String, SeleniumPattern>();
+
         @SuppressWarnings("javadoc")
         public static enum Type {
             REGEXP, REGEXPI, GLOB, EXACT
@@ -86,6 +99,32 @@ public class SeleniumUtils {
             this.stringPattern = pattern;
         }
 
+        /**
+         * Get compiled pattern.
+         * <p>
+         * The compiled pattern is cached and reused for the same pattern string.
+         * </p>
+         *
+         * @param pattern string-matching pattern.
+         * @return compiled pattern.
+         */
+        public static SeleniumPattern compile(String pattern) {
+            SeleniumPattern compiled = cache.get(pattern);
+            if (compiled == null) {
+                // a duplicated compilation is harmless.
+                compiled = new SeleniumPattern(pattern);
+                if (cache.size() >= MAX_CACHE_SIZE) {
+                    Iterator<String> iter = cache.keySet().iterator();
+                    if (iter.hasNext()) {
+                        iter.next();
+                        iter.remove();
+                    }
+                }
+                cache.put(pattern, compiled);
+            }
+            return compiled;
+        }
+
         /**
          * Match pattern.
          *
@@ -119,7 +158,7 @@ public class SeleniumUtils {
      * @return true if matched pattern.
      */
     public static boolean patternMatches(String pattern, CharSequence input) {
-        return new SeleniumPattern(pattern).matches(input.toString());
+        return SeleniumPattern.compile(pattern).matches(input.toString());
     }
 
     /**
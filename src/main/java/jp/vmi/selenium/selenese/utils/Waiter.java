@@ -0,0 +1,238 @@
+package jp.vmi.selenium.selenese.utils;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Wait between retries of checking a condition until timeout.
+ * <p>
+ * If the condition depends on DOM, {@link #waitForDomChange(WebDriver)} waits until DOM is changed
+ * by the MutationObserver of {@link DomGeneration} in the browser, but no longer than the maximum delay of {@link PollingPolicy}.
+ * It also waits at least the current delay of the policy, so that it does not busy-loop on a page which is always changing.
+ * Otherwise, or if MutationObserver is not available, {@link #sleep()} waits by {@link PollingPolicy}.
+ * </p>
+ * <p>
+ * The time spent in waiting is accumulated for each thread, and is taken by {@link #pollTotalWaitTime()}.
+ * </p>
+ */
+public class Waiter {
+
+    private static final Logger log = LoggerFactory.getLogger(Waiter.class);
+
+    // margin of the script timeout for the round trip. (ms)
+    private static final long SCRIPT_TIMEOUT_MARGIN = 1000;
+
+    // returns true if DOM is changed, false if timed out, or null if MutationObserver is not available.
+    private static final String DOM_CHANGE_SCRIPT = DomGeneration.FUNCTION
+        + "var callback = arguments[arguments.length - 1];\n"
+        + "if (domGeneration() === null) {\n"
+        + "  callback(null);\n"
+        + "  return;\n"
+        + "}\n"
+        + "var listeners = window.__seleneseRunnerDomGeneration.listeners;\n"
+        + "var done = false, timer = null;\n"
+        + "var listener = function() { finish(true); };\n"
+        + "var finish = function(changed) {\n"
+        + "  if (done) return;\n"
+        + "  done = true;\n"
+        + "  clearTimeout(timer);\n"
+        + "  var i = listeners.indexOf(listener);\n"
+        + "  if (i >= 0) listeners.splice(i, 1);\n"
+        + "  callback(changed);\n"
+        + "};\n"
+        + "listeners.push(listener);\n"
+        + "timer = setTimeout(function() { finish(false); }, arguments[0]);";
+
+    private static class DriverState {
+        private long scriptTimeout = -1;
+    }
+
+    // guarded by itself.
+    private static final Map<WebDriver, DriverState> driverStates = new WeakHashMap<WebDriver, DriverState>();
+
+    private static final ThreadLocal<long[]> totalWaitTime = new ThreadLocal<long[]>() {
+        @Override
+        protected long[] initialValue() {
+            return new long[1];
+        }
+    };
+
+    private final long deadline;
+    private final PollingPolicy policy;
+    private long delay;
+
+    /**
+     * Constructor.
+     *
+     * @param timeout timeout. (ms)
+     * @param policy polling policy.
+     */
+    public Waiter(long timeout, PollingPolicy policy) {
+        this.deadline = System.currentTimeMillis() + timeout;
+        this.policy = policy;
+        this.delay = policy.getInitialDelay();
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param timeout timeout. (ms)
+     */
+    public Waiter(long timeout) {
+        this(timeout, PollingPolicy.DEFAULT);
+    }
+
+    /**
+     * Get the total time spent in waiting in the current thread, and reset it.
+     *
+     * @return total wait time. (ms)
+     */
+    public static long pollTotalWaitTime() {
+        long[] total = totalWaitTime.get();
+        long result = total[0];
+        total[0] = 0;
+        return result;
+    }
+
+    /**
+     * Add the time spent in waiting since start time to the total wait time of the current thread.
+     *
+     * @param start start time of waiting. (ms)
+     */
+    public static void addWaitTime(long start) {
+        totalWaitTime.get()[0] += System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Is timed out?
+     *
+     * @return true if timed out.
+     */
+    public boolean isTimedOut() {
+        return System.currentTimeMillis() > deadline;
+    }
+
+    private long getRemaining() {
+        return Math.max(deadline - System.currentTimeMillis(), 0);
+    }
+
+    /**
+     * Sleep by the polling policy.
+     *
+     * @throws InterruptedException if interrupted.
+     */
+    public void sleep() throws InterruptedException {
+        long millis = Math.min(policy.applyJitter(delay), getRemaining());
+        delay = policy.nextDelay(delay);
+        if (millis <= 0)
+            return;
+        long start = System.currentTimeMillis();
+        try {
+            Thread.sleep(millis);
+        } finally {
+            addWaitTime(start);
+        }
+    }
+
+    private static DriverState getDriverState(WebDriver driver) {
+        synchronized (driverStates) {
+            DriverState state = driverStates.get(driver);
+            if (state == null) {
+                state = new DriverState();
+                driverStates.put(driver, state);
+            }
+            return state;
+        }
+    }
+
+    /**
+     * Set script timeout for executeAsyncScript.
+     * <p>
+     * The script timeout set by this method is remembered for each driver to skip redundant round trips.
+     * </p>
+     *
+     * @param driver WebDriver.
+     * @param timeout script timeout. (ms)
+     */
+    public static void setScriptTimeout(WebDriver driver, long timeout) {
+        DriverState state = getDriverState(driver);
+        synchronized (state) {
+            if (state.scriptTimeout == timeout)
+                return;
+            // unknown until the driver accepts it.
+            state.scriptTimeout = -1;
+            driver.manage().timeouts().setScriptTimeout(timeout, TimeUnit.MILLISECONDS);
+            state.scriptTimeout = timeout;
+        }
+    }
+
+    /**
+     * Set script timeout for executeAsyncScript to the value used for waiting for DOM change.
+     * <p>
+     * This should be called after executing an async script with a longer timeout,
+     * so that later async scripts do not block for long if their callbacks are lost.
+     * </p>
+     *
+     * @param driver WebDriver.
+     * @param policy polling policy.
+     */
+    public static void resetScriptTimeout(WebDriver driver, PollingPolicy policy) {
+        setScriptTimeout(driver, policy.getMaxDelay() + SCRIPT_TIMEOUT_MARGIN);
+    }
+
+    /**
+     * Wait until DOM of the current frame is changed.
+     * <p>
+     * If DOM is not observable, this is same as {@link #sleep()}.
+     * </p>
+     *
+     * @param driver WebDriver.
+     * @throws InterruptedException if interrupted.
+     */
+    public void waitForDomChange(WebDriver driver) throws InterruptedException {
+        long millis = Math.min(policy.getMaxDelay(), getRemaining());
+        if (!DomGeneration.isSupported(driver) || !(driver instanceof JavascriptExecutor) || millis <= 0) {
+            sleep();
+            return;
+        }
+        long minMillis = policy.applyJitter(delay);
+        delay = policy.nextDelay(delay);
+        Object result;
+        long start = System.currentTimeMillis();
+        try {
+            resetScriptTimeout(driver, policy);
+            result = ((JavascriptExecutor) driver).executeAsyncScript(DOM_CHANGE_SCRIPT, millis);
+        } catch (WebDriverException e) {
+            // e.g. page transition or alert.
+            log.debug("Failed to wait for DOM change: {}", e.getMessage());
+            result = e;
+        } finally {
+            addWaitTime(start);
+        }
+        if (result instanceof WebDriverException) {
+            sleep();
+        } else if (result == null) {
+            log.info("{} does not support MutationObserver. Wait by polling.", driver.getClass().getSimpleName());
+            DomGeneration.setUnsupported(driver);
+            sleep();
+        } else {
+            // DOM may be changed again soon.
+            long rest = Math.min(start + minMillis - System.currentTimeMillis(), getRemaining());
+            if (rest > 0) {
+                long restStart = System.currentTimeMillis();
+                try {
+                    Thread.sleep(rest);
+                } finally {
+                    addWaitTime(restStart);
+                }
+            }
+        }
+    }
+}
@@ -72,20 +72,39 @@ public class WebDriverManager implements WebDriverPreparator {
 
         private final WebDriverFactory factory;
         private final DriverOptions driverOptions;
+        private final WebDriverPool pool;
 
-        public Builder(WebDriverFactory factory, DriverOptions driverOptions) {
+        public Builder(WebDriverFactory factory, DriverOptions driverOptions, int poolMinSize, int poolMaxSize, long poolIdleTimeout) {
             this.factory = factory;
             this.driverOptions = new DriverOptions(driverOptions);
+            if (poolMaxSize > 0) {
+                this.pool = new WebDriverPool(factory, driverOptions, poolMinSize, poolMaxSize, poolIdleTimeout);
+                // for the first build().
+                this.pool.reserve(1);
+            } else {
+                this.pool = null;
+            }
         }
 
-        public boolean isParameterChanged(WebDriverFactory factory, DriverOptions driverOptions) {
-            return !this.factory.equals(factory) || !this.driverOptions.toString().equals(driverOptions.toString());
+        public boolean isParameterChanged(WebDriverFactory factory, DriverOptions driverOptions, int poolMinSize, int poolMaxSize, long poolIdleTimeout) {
+            if (!this.factory.equals(factory) || !this.driverOptions.toString().equals(driverOptions.toString()))
+                return true;
+            if (pool == null)
+                return poolMaxSize > 0;
+            return pool.getMinSize() != poolMinSize || pool.getMaxSize() != poolMaxSize || pool.getIdleTimeout() != poolIdleTimeout;
         }
 
         public WebDriver build() {
+            if (pool != null)
+                return pool.take();
             return factory.newInstance(driverOptions);
         }
 
+        public void close() {
+            if (pool != null)
+                pool.close();
+        }
+
     }
 
     /**
@@ -102,6 +121,16 @@ public class WebDriverManager implements WebDriverPreparator {
 
     private DriverOptions driverOptions = new DriverOptions();
 
+    private int poolMinSize = 0;
+
+    private int poolMaxSize = 0;
+
+    private long poolIdleTimeout = 0;
+
+    private long livenessWindow = 0;
+
+    private long lastAliveTime = 0;
+
     private Builder builder = null;
 
     private WebDriver driver = null;
@@ -186,8 +215,9 @@ public class WebDriverManager implements WebDriverPreparator {
      *
      * @param factory WebDriverFactory instance.
      */
-    public void setWebDriverFactory(WebDriverFactory factory) {
+    public synchronized void setWebDriverFactory(WebDriverFactory factory) {
         this.factory = factory;
+        preparePool();
     }
 
     /**
@@ -250,8 +280,87 @@ public class WebDriverManager implements WebDriverPreparator {
      *
      * @param driverOptions DriverOptions instance.
      */
-    public void setDriverOptions(DriverOptions driverOptions) {
+    public synchronized void setDriverOptions(DriverOptions driverOptions) {
         this.driverOptions = driverOptions;
+        preparePool();
+    }
+
+    /**
+     * Set driver pool parameters.
+     * <p>
+     * If maxSize is greater than 0, pre-started drivers are kept by {@link WebDriverPool},
+     * and starting or restarting driver does not wait for browser startup.
+     * The pool starts warming up immediately.
+     * </p>
+     *
+     * @param minSize minimum number of idle drivers.
+     * @param maxSize maximum number of idle drivers. (0 means no pool)
+     * @param idleTimeout idle timeout (ms) of drivers beyond minimum. (0 means no eviction)
+     */
+    public synchronized void setDriverPool(int minSize, int maxSize, long idleTimeout) {
+        if (maxSize > 0 && (minSize < 0 || maxSize < minSize || idleTimeout < 0))
+            throw new IllegalArgumentException("Invalid driver pool parameters. (min=" + minSize + ", max=" + maxSize + ", idle=" + idleTimeout + ")");
+        this.poolMinSize = minSize;
+        this.poolMaxSize = maxSize;
+        this.poolIdleTimeout = idleTimeout;
+        preparePool();
+    }
+
+    private void preparePool() {
+        if (poolMaxSize <= 0 || factory == null)
+            return;
+        if (builder != null && !builder.isParameterChanged(factory, driverOptions, poolMinSize, poolMaxSize, poolIdleTimeout))
+            return;
+        if (builder != null)
+            builder.close();
+        builder = new Builder(factory, driverOptions, poolMinSize, poolMaxSize, poolIdleTimeout);
+    }
+
+    /**
+     * Get liveness window.
+     *
+     * @return liveness window (ms).
+     */
+    public synchronized long getLivenessWindow() {
+        return livenessWindow;
+    }
+
+    /**
+     * Set liveness window.
+     * <p>
+     * If the current driver succeeded a command within this window,
+     * {@link #get()} reuses it without probing the browser.
+     * </p>
+     *
+     * @param livenessWindow liveness window (ms). (0 means always probing)
+     */
+    public synchronized void setLivenessWindow(long livenessWindow) {
+        if (livenessWindow < 0)
+            throw new IllegalArgumentException("Invalid liveness window. (" + livenessWindow + ")");
+        this.livenessWindow = livenessWindow;
+    }
+
+    /**
+     * Notify that the driver succeeded a command.
+     *
+     * @param driver WebDriver instance which executed the command.
+     */
+    public synchronized void notifyDriverAlive(WebDriver driver) {
+        if (driver != null && driver == this.driver)
+            lastAliveTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Notify that the driver failed a command.
+     * <p>
+     * The driver will be probed at next {@link #get()}.
+     * </p>
+     *
+     * @param driver WebDriver instance which executed the command.
+     */
+    public synchronized void notifyDriverFailed(WebDriver driver) {
+        if (driver != null && driver == this.driver)
+            lastAliveTime = 0;
     }
 
     private boolean isBrowserUnreachable(Throwable t) {
@@ -267,12 +376,17 @@ public class WebDriverManager implements WebDriverPreparator {
     private boolean isDriverReusable() {
         if (driver == null)
             return false;
+        if (livenessWindow > 0 && System.currentTimeMillis() - lastAliveTime <= livenessWindow) {
+            log.debug("Driver succeeded a command recently. Skip liveness check.");
+            return true;
+        }
         try {
             driver.getWindowHandle();
             // ChromeDriver does not send UnreachableBrowserException.
             // TODO fix me when ChromeDriver is fixed.
             if (driver instanceof ChromeDriver)
                 driver.getTitle();
+            lastAliveTime = System.currentTimeMillis();
             return true;
         } catch (NoSuchWindowException e) {
             log.info("No focused window.");
@@ -298,18 +412,19 @@ public class WebDriverManager implements WebDriverPreparator {
 
     @Override
     public synchronized WebDriver get() throws IllegalArgumentException {
-        if (builder == null || builder.isParameterChanged(factory, driverOptions)) {
-            builder = new Builder(factory, driverOptions);
-        } else {
-            if (isDriverReusable()) {
-                log.info("Existing driver found.");
-                return driver;
-            } else {
-                log.info("Restart driver.");
-            }
+        if (builder == null || builder.isParameterChanged(factory, driverOptions, poolMinSize, poolMaxSize, poolIdleTimeout)) {
+            if (builder != null)
+                builder.close();
+            builder = new Builder(factory, driverOptions, poolMinSize, poolMaxSize, poolIdleTimeout);
+        } else if (isDriverReusable()) {
+            log.info("Existing driver found.");
+            return driver;
+        } else if (driver != null) {
+            log.info("Restart driver.");
         }
         quitDriver();
         driver = builder.build();
+        lastAliveTime = System.currentTimeMillis();
         log.info("Initialized: {}", getDriverName(driver));
         return driver;
     }
@@ -328,6 +443,18 @@ public class WebDriverManager implements WebDriverPreparator {
             log.info("Quit: {}", getDriverName(driver));
         }
         driver = null;
+        lastAliveTime = 0;
+    }
+
+    /**
+     * Quit WebDriver instance and idle drivers in the pool.
+     */
+    public synchronized void quitDriverAndPool() {
+        quitDriver();
+        if (builder != null) {
+            builder.close();
+            builder = null;
+        }
     }
 
     /**
@@ -342,7 +469,7 @@ public class WebDriverManager implements WebDriverPreparator {
 
     @Override
     protected void finalize() throws Throwable {
-        quitDriver();
+        quitDriverAndPool();
     }
 
     /**
@@ -351,7 +478,7 @@ public class WebDriverManager implements WebDriverPreparator {
     public static synchronized void quitDriversOnAllManagers() {
         synchronized (managers) {
             for (WebDriverManager manager : managers)
-                manager.quitDriver();
+                manager.quitDriverAndPool();
         }
     }
 }
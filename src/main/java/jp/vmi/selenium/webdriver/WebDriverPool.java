@@ -0,0 +1,324 @@
+package jp.vmi.selenium.webdriver;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pool of pre-started {@link WebDriver} instances.
+ * <p>
+ * The pool keeps at least "min" drivers started up in background threads,
+ * and hands out one of them by {@link #take()} without waiting for browser startup.
+ * Each time the pool has run dry, the number of kept drivers grows by one up to "max".
+ * The drivers beyond "min" which have been idle longer than the idle timeout are quitted.
+ * </p>
+ * <p>
+ * The drivers reserved by {@link #reserve(int)} are started up in addition to "min",
+ * and {@link #take()} waits for their startup instead of starting new driver.
+ * </p>
+ */
+public class WebDriverPool {
+
+    private static final Logger log = LoggerFactory.getLogger(WebDriverPool.class);
+
+    private static final AtomicInteger poolCount = new AtomicInteger(0);
+
+    private static class PooledDriver {
+
+        private final WebDriver driver;
+        private final long idleSince;
+
+        private PooledDriver(WebDriver driver) {
+            this.driver = driver;
+            this.idleSince = System.currentTimeMillis();
+        }
+    }
+
+    private final WebDriverFactory factory;
+    private final DriverOptions driverOptions;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeout;
+    private final ScheduledExecutorService executor;
+
+    // guarded by this.
+    private final Deque<PooledDriver> idleDrivers = new LinkedList<PooledDriver>();
+    private int startingCount = 0;
+    private int reservedCount = 0;
+    private int targetSize;
+    private int hitCount = 0;
+    private int missCount = 0;
+    private boolean closed = false;
+
+    /**
+     * Constructor.
+     *
+     * @param factory WebDriverFactory instance.
+     * @param driverOptions driver options.
+     * @param minSize minimum number of idle drivers.
+     * @param maxSize maximum number of idle drivers.
+     * @param idleTimeout idle timeout (ms) of drivers beyond minimum. (0 means no eviction)
+     */
+    public WebDriverPool(WebDriverFactory factory, DriverOptions driverOptions, int minSize, int maxSize, long idleTimeout) {
+        if (minSize < 0 || maxSize <= 0 || maxSize < minSize)
+            throw new IllegalArgumentException("Invalid driver pool size. (min=" + minSize + ", max=" + maxSize + ")");
+        if (idleTimeout < 0)
+            throw new IllegalArgumentException("Invalid driver pool idle timeout. (" + idleTimeout + ")");
+        this.factory = factory;
+        this.driverOptions = new DriverOptions(driverOptions);
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeout = idleTimeout;
+        this.targetSize = minSize;
+        final String prefix = "WebDriverPool-" + poolCount.incrementAndGet() + "-";
+        this.executor = Executors.newScheduledThreadPool(maxSize, new ThreadFactory() {
+            private int threadCount = 0;
+
+            @Override
+            public synchronized Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, prefix + (++threadCount));
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        if (idleTimeout > 0) {
+            long interval = Math.max(idleTimeout / 2, 1000);
+            executor.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    evictIdleDrivers();
+                }
+            }, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        replenish();
+    }
+
+    /**
+     * Get minimum number of idle drivers.
+     *
+     * @return minimum number of idle drivers.
+     */
+    public int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * Get maximum number of idle drivers.
+     *
+     * @return maximum number of idle drivers.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Get idle timeout.
+     *
+     * @return idle timeout (ms).
+     */
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Get number of idle drivers.
+     *
+     * @return number of idle drivers.
+     */
+    public synchronized int getIdleCount() {
+        return idleDrivers.size();
+    }
+
+    /**
+     * Get number of times a pre-started driver was handed out.
+     *
+     * @return hit count.
+     */
+    public synchronized int getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Get number of times a driver was started on demand.
+     *
+     * @return miss count.
+     */
+    public synchronized int getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Reserve drivers for upcoming {@link #take()} calls.
+     * <p>
+     * The reserved drivers are started up in background threads in addition to minimum idle drivers.
+     * Taking a reserved driver is neither counted as miss nor grows the pool.
+     * </p>
+     *
+     * @param count number of drivers to reserve.
+     */
+    public void reserve(int count) {
+        if (count < 0)
+            throw new IllegalArgumentException("Invalid reserved count. (" + count + ")");
+        synchronized (this) {
+            reservedCount += count;
+        }
+        replenish();
+    }
+
+    /**
+     * Take a driver out of this pool.
+     * <p>
+     * If there is no idle driver, start up new driver in the current thread.
+     * If a reserved driver is starting up, wait for it instead.
+     * </p>
+     *
+     * @return WebDriver instance.
+     */
+    public WebDriver take() {
+        while (true) {
+            PooledDriver pooled;
+            synchronized (this) {
+                while (true) {
+                    if (closed)
+                        throw new IllegalStateException("WebDriverPool is already closed.");
+                    pooled = idleDrivers.pollLast();
+                    if (pooled != null || reservedCount == 0 || startingCount == 0)
+                        break;
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                if (reservedCount > 0) {
+                    reservedCount--;
+                    if (pooled != null)
+                        hitCount++;
+                } else if (pooled != null) {
+                    hitCount++;
+                } else {
+                    missCount++;
+                    if (targetSize < maxSize)
+                        targetSize++;
+                }
+            }
+            replenish();
+            if (pooled == null) {
+                log.info("No idle driver in pool. Start new driver.");
+                return factory.newInstance(driverOptions);
+            }
+            if (isAlive(pooled.driver)) {
+                log.info("Take driver from pool.");
+                return pooled.driver;
+            }
+            log.warn("Pooled driver is dead. Discard it.");
+            quitQuietly(pooled.driver);
+        }
+    }
+
+    private boolean isAlive(WebDriver driver) {
+        try {
+            driver.getWindowHandle();
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static void quitQuietly(WebDriver driver) {
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            log.warn(e.getMessage());
+        }
+    }
+
+    private synchronized void replenish() {
+        if (closed)
+            return;
+        int count = Math.min(targetSize, maxSize) + reservedCount - idleDrivers.size() - startingCount;
+        for (int i = 0; i < count; i++) {
+            startingCount++;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    startDriver();
+                }
+            });
+        }
+    }
+
+    private void startDriver() {
+        WebDriver driver = null;
+        try {
+            driver = factory.newInstance(driverOptions);
+        } catch (RuntimeException e) {
+            log.warn("Failed to start pooled driver: {}", e.getMessage());
+        } finally {
+            boolean isAccepted = false;
+            synchronized (this) {
+                startingCount--;
+                if (driver != null && !closed && idleDrivers.size() < maxSize + reservedCount) {
+                    idleDrivers.addLast(new PooledDriver(driver));
+                    isAccepted = true;
+                }
+                notifyAll();
+            }
+            if (driver != null && !isAccepted)
+                quitQuietly(driver);
+        }
+    }
+
+    private void evictIdleDrivers() {
+        List<WebDriver> evicted = new ArrayList<WebDriver>();
+        synchronized (this) {
+            long limit = System.currentTimeMillis() - idleTimeout;
+            Iterator<PooledDriver> iter = idleDrivers.iterator();
+            while (iter.hasNext() && idleDrivers.size() > minSize + reservedCount) {
+                PooledDriver pooled = iter.next();
+                if (pooled.idleSince > limit)
+                    break;
+                iter.remove();
+                evicted.add(pooled.driver);
+            }
+            targetSize = Math.max(minSize, targetSize - evicted.size());
+        }
+        if (!evicted.isEmpty())
+            log.info("Evict {} idle driver(s) from pool.", evicted.size());
+        for (WebDriver driver : evicted)
+            quitQuietly(driver);
+    }
+
+    /**
+     * Quit all idle drivers and stop background threads.
+     * <p>
+     * The drivers already taken out of this pool are not affected.
+     * </p>
+     */
+    public void close() {
+        List<PooledDriver> drivers;
+        synchronized (this) {
+            if (closed)
+                return;
+            closed = true;
+            drivers = new ArrayList<PooledDriver>(idleDrivers);
+            idleDrivers.clear();
+            notifyAll();
+        }
+        executor.shutdownNow();
+        for (PooledDriver pooled : drivers)
+            quitQuietly(pooled.driver);
+    }
+}
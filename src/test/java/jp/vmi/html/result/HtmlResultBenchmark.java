@@ -0,0 +1,95 @@
+package jp.vmi.html.result;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.floreysoft.jmte.Engine;
+
+import jp.vmi.selenium.selenese.Runner;
+import jp.vmi.selenium.selenese.TestCase;
+import jp.vmi.selenium.selenese.TestSuite;
+import jp.vmi.selenium.selenese.command.CommandFactory;
+import jp.vmi.selenium.selenese.inject.Binder;
+import jp.vmi.selenium.webdriver.NullDriver;
+
+/**
+ * Benchmark of rendering HTML result of a large test-suite.
+ * <p>
+ * Run by "mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=jp.vmi.html.result.HtmlResultBenchmark".
+ * </p>
+ */
+@SuppressWarnings("javadoc")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class HtmlResultBenchmark {
+
+    private static final int COMMAND_COUNT = 5000;
+
+    private HtmlResult htmlResult;
+    private Engine engine;
+    private Map<String, Object> model;
+
+    @Setup
+    public void setup() {
+        Runner runner = new Runner();
+        runner.setDriver(new NullDriver());
+        CommandFactory cf = runner.getCommandFactory();
+        TestSuite testSuite = Binder.newTestSuite("suite.html", "suite");
+        TestCase testCase = Binder.newTestCase("case.html", "case", "http://localhost");
+        for (int i = 0; i < COMMAND_COUNT; i++) {
+            if (i % 2 == 0)
+                testCase.addCommand(cf, "store", "value" + i, "v" + (i % 10));
+            else
+                testCase.addCommand(cf, "echo", "${v" + ((i - 1) % 10) + "}");
+        }
+        testSuite.addSelenese(testCase);
+        runner.execute(testSuite);
+        TestSuiteSummary summary = new TestSuiteSummary();
+        summary.numTestTotal = 1;
+        summary.numTestPasses = 1;
+        summary.numCommandPasses = COMMAND_COUNT;
+        htmlResult = new HtmlResult();
+        model = htmlResult.createModel(testSuite, summary);
+        engine = htmlResult.createEngine();
+    }
+
+    @Benchmark
+    public String renderBaseline() throws IOException {
+        // the previous implementation: one shared engine, and loading the template resource for each test-suite.
+        InputStream is = HtmlResult.class.getResourceAsStream("result.html");
+        try {
+            return engine.transform(IOUtils.toString(is), model);
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+    }
+
+    @Benchmark
+    public String renderCached() {
+        return htmlResult.render("result.html", model);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new org.openjdk.jmh.runner.Runner(new OptionsBuilder().include(HtmlResultBenchmark.class.getSimpleName()).build()).run();
+    }
+}
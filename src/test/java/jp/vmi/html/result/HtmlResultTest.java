@@ -9,15 +9,24 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.openqa.selenium.WebDriver;
 
+import jp.vmi.selenium.selenese.Context;
 import jp.vmi.selenium.selenese.Runner;
 import jp.vmi.selenium.selenese.TestCase;
 import jp.vmi.selenium.selenese.TestSuite;
+import jp.vmi.selenium.selenese.command.AbstractCommand;
 import jp.vmi.selenium.selenese.command.CommandFactory;
+import jp.vmi.selenium.selenese.command.ICommand;
+import jp.vmi.selenium.selenese.command.ICommandFactory;
 import jp.vmi.selenium.selenese.inject.Binder;
+import jp.vmi.selenium.selenese.result.Result;
 import jp.vmi.selenium.testutils.TestBase;
 import jp.vmi.selenium.webdriver.DriverOptions;
+import jp.vmi.selenium.webdriver.NullDriver;
 import jp.vmi.selenium.webdriver.WebDriverManager;
 
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
 /**
  * HTML result test.
  */
@@ -114,4 +123,43 @@ public class HtmlResultTest extends TestBase {
         runner.execute(s1);
         runner.finish();
     }
+
+    /**
+     * Count commands in HTML result.
+     * <p>
+     * A command which threw an exception is counted as an error.
+     * </p>
+     */
+    @Test
+    public void countCommands() {
+        Runner runner = new Runner();
+        runner.setDriver(new NullDriver());
+        runner.setHtmlResultDir(getTmpRoot().getPath());
+        CommandFactory cf = runner.getCommandFactory();
+        cf.registerCommandFactory(new ICommandFactory() {
+            @Override
+            public ICommand newCommand(int index, String name, String... args) {
+                if (!"throwException".equals(name))
+                    return null;
+                return new AbstractCommand(index, name, args) {
+                    @Override
+                    protected Result executeImpl(Context context, String... curArgs) {
+                        throw new IllegalStateException("thrown");
+                    }
+                };
+            }
+        });
+        TestSuite testSuite = Binder.newTestSuite(filename(getTmpRoot(), "suite"), "suite");
+        TestCase testCase = Binder.newTestCase(filename(getTmpRoot(), "case"), "case", "http://localhost");
+        testCase.addCommand(cf, "echo", "c1");
+        testCase.addCommand(cf, "verifyExpression", "a", "b");
+        testCase.addCommand(cf, "throwException");
+        testSuite.addSelenese(testCase);
+        runner.execute(testSuite);
+        runner.finish();
+        TestSuiteSummary summary = runner.getHtmlResult().generate(testSuite);
+        assertThat(summary.numCommandPasses, is(2));
+        assertThat(summary.numCommandFailures, is(0));
+        assertThat(summary.numCommandErrors, is(1));
+    }
 }
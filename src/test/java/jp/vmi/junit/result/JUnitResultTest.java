@@ -218,6 +218,7 @@ public class JUnitResultTest {
 
         // test-suite test.
         File resultFile = new File(tmp.getRoot(), "TEST-" + testSuite.getName() + ".xml");
+        assertThat("sidecar file is removed", new File(resultFile.getPath() + ".part").exists(), is(false));
         Element suiteResult = (Element) xpath.evaluate("/testsuite", new InputSource(resultFile.getPath()), NODE);
         assertThat(suiteResult.getAttribute("name"), is("test-suite"));
         assertThat("test-suite:time", Double.parseDouble(suiteResult.getAttribute("time")), lessThan(1.0));
@@ -16,6 +16,7 @@ import org.junit.runners.Parameterized.Parameters;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.remote.UnreachableBrowserException;
 
+import jp.vmi.selenium.selenese.locator.WebDriverElementFinder;
 import jp.vmi.selenium.selenese.log.CookieFilter;
 import jp.vmi.selenium.selenese.log.CookieFilter.FilterType;
 import jp.vmi.selenium.selenese.result.Failure;
@@ -138,6 +139,49 @@ public class DriverDependentTest extends TestCaseTestBase {
         assertThat(result, is(instanceOf(Success.class)));
     }
 
+    @Test
+    public void elementCache() {
+        WebDriverElementFinder elementFinder = runner.getElementFinder();
+        elementFinder.setCacheEnabled(true);
+        execute("elementCache");
+        assertThat(result, is(instanceOf(Success.class)));
+        // the cache is available only if the browser supports MutationObserver.
+        assumeThat(elementFinder.getCacheHitCount() + elementFinder.getCacheMissCount(), is(greaterThan(0L)));
+        assertThat(elementFinder.getCacheHitCount(), is(2L));
+        assertThat(elementFinder.getCacheMissCount(), is(3L));
+    }
+
+    @Test
+    public void selectFrame() {
+        execute("selectFrame");
+        assertThat(result, is(instanceOf(Success.class)));
+    }
+
+    @Test
+    public void batchLocators() {
+        execute("batchLocators");
+        assertThat(result, is(instanceOf(Success.class)));
+    }
+
+    @Test
+    public void waitForCondition() {
+        execute("waitForCondition");
+        assertThat(result, is(instanceOf(Success.class)));
+    }
+
+    @Test
+    public void frameSearch() {
+        execute("frameSearch");
+        assertThat(result, is(instanceOf(Success.class)));
+    }
+
+    @Test
+    public void frameSearchDepth() {
+        runner.getElementFinder().setFrameSearchDepth(3);
+        execute("frameSearch");
+        assertThat(result, is(instanceOf(Warning.class)));
+    }
+
     @Test
     public void iframe() {
         // don't work this test-case on SafariDriver and HtmlUnitDriver.
@@ -160,6 +204,45 @@ public class DriverDependentTest extends TestCaseTestBase {
         assertThat(result, is(instanceOf(Success.class)));
     }
 
+    @Test
+    public void cookieByScript() {
+        runner.setPageInformationByScript(true);
+        execute("cookie");
+        assertThat(result, is(instanceOf(Warning.class)));
+        List<String> actual = getSystemOut(new Filter() {
+            private boolean fetch = false;
+
+            @Override
+            public String filter(String line) {
+                if (!fetch && line.contains("deleteAllVisibleCookies")) {
+                    fetch = true;
+                } else if (fetch && line.contains("- Cookie:")) {
+                    return line
+                        .replaceFirst("^\\[[^\\]]+\\]\\s+", "") // suppress timestamp.
+                        .replaceFirst("domain=\\*", "domain=localhost"); // fixup safari driver's bug.
+                }
+                return null;
+            }
+        });
+        // HttpOnly cookies are invisible from JavaScript, so page information on fail is got by WebDriver API.
+        assertThat(actual, is(equalTo(Arrays.asList(
+            "[INFO] - Cookie: [add] key1=[value1] (domain=localhost, path=*, expire=*)",
+            "[INFO] - Cookie: [add] key2=[value2] (domain=localhost, path=*, expire=*)",
+            "[INFO] - Cookie: [add] key3=[value3] (domain=localhost, path=*, expire=*)",
+            "[ERROR] - Cookie: key1=[value1] (domain=localhost, path=/, expire=*)",
+            "[ERROR] - Cookie: key2=[value2] (domain=localhost, path=/, expire=*)",
+            "[ERROR] - Cookie: key3=[value3] (domain=localhost, path=/, expire=*)",
+            "[INFO] - Cookie: key1=[value1] (domain=localhost, path=*, expire=*)",
+            "[INFO] - Cookie: key2=[value2] (domain=localhost, path=*, expire=*)",
+            "[INFO] - Cookie: key3=[value3] (domain=localhost, path=*, expire=*)",
+            "[INFO] - Cookie: [mod] key2=[VALUE_TWO] (domain=localhost, path=*, expire=*)",
+            "[INFO] - Cookie: [del] key3 (domain=localhost, path=*)"))));
+
+        testSuites.clear();
+        execute("cookie2");
+        assertThat(result, is(instanceOf(Success.class)));
+    }
+
     @Test
     public void rollup() {
         assumeNot(HTMLUNIT);
@@ -267,6 +350,31 @@ public class DriverDependentTest extends TestCaseTestBase {
             "[INFO] - Cookie: [del] key1 (domain=localhost, path=/)"))));
     }
 
+    @Test
+    public void cookieInFrame() {
+        execute("cookieInFrame");
+        assertThat(result, is(instanceOf(Warning.class)));
+        List<String> actual = getSystemOut(new Filter() {
+            private boolean fetch = false;
+
+            @Override
+            public String filter(String line) {
+                if (!fetch && line.contains("deleteAllVisibleCookies")) {
+                    fetch = true;
+                } else if (fetch && line.contains("- Cookie:")) {
+                    return line
+                        .replaceFirst("^\\[[^\\]]+\\]\\s+", "") // suppress timestamp.
+                        .replaceFirst("domain=\\*", "domain=localhost"); // fixup safari driver's bug.
+                }
+                return null;
+            }
+        });
+        // the cookie invisible from the selected frame is neither deleted nor missing.
+        assertThat(actual, is(equalTo(Arrays.asList(
+            "[INFO] - Cookie: [add] topKey=[topValue] (domain=localhost, path=/cookie_frame.html, expire=*)",
+            "[ERROR] - Cookie: topKey=[topValue] (domain=localhost, path=/cookie_frame.html, expire=*)"))));
+    }
+
     @Test
     public void issue48() {
         assumeNot(SAFARI); // FIXME don't work this test on SafariDriver.
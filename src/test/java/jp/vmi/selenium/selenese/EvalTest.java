@@ -0,0 +1,119 @@
+package jp.vmi.selenium.selenese;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+import org.openqa.selenium.logging.Logs;
+
+import jp.vmi.selenium.selenese.utils.PollingPolicy;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+/**
+ * Test of {@link Eval}.
+ */
+@SuppressWarnings("javadoc")
+public class EvalTest {
+
+    private static class ScriptTimeoutDriver extends HtmlUnitDriver {
+
+        public final List<Long> scriptTimeouts = new ArrayList<Long>();
+
+        @Override
+        public Object executeAsyncScript(String script, Object... args) {
+            return Arrays.asList(true, null);
+        }
+
+        @Override
+        public Options manage() {
+            final Options options = super.manage();
+            return new Options() {
+                @Override
+                public void addCookie(Cookie cookie) {
+                    options.addCookie(cookie);
+                }
+
+                @Override
+                public void deleteCookieNamed(String name) {
+                    options.deleteCookieNamed(name);
+                }
+
+                @Override
+                public void deleteCookie(Cookie cookie) {
+                    options.deleteCookie(cookie);
+                }
+
+                @Override
+                public void deleteAllCookies() {
+                    options.deleteAllCookies();
+                }
+
+                @Override
+                public Set<Cookie> getCookies() {
+                    return options.getCookies();
+                }
+
+                @Override
+                public Cookie getCookieNamed(String name) {
+                    return options.getCookieNamed(name);
+                }
+
+                @Override
+                public Timeouts timeouts() {
+                    final Timeouts timeouts = options.timeouts();
+                    return new Timeouts() {
+                        @Override
+                        public Timeouts implicitlyWait(long time, TimeUnit unit) {
+                            return timeouts.implicitlyWait(time, unit);
+                        }
+
+                        @Override
+                        public Timeouts setScriptTimeout(long time, TimeUnit unit) {
+                            scriptTimeouts.add(unit.toMillis(time));
+                            return this;
+                        }
+
+                        @Override
+                        public Timeouts pageLoadTimeout(long time, TimeUnit unit) {
+                            return timeouts.pageLoadTimeout(time, unit);
+                        }
+                    };
+                }
+
+                @Override
+                public ImeHandler ime() {
+                    return options.ime();
+                }
+
+                @Override
+                public Window window() {
+                    return options.window();
+                }
+
+                @Override
+                public Logs logs() {
+                    return options.logs();
+                }
+            };
+        }
+    }
+
+    @Test
+    public void restoreScriptTimeoutAfterWaitFor() {
+        ScriptTimeoutDriver driver = new ScriptTimeoutDriver();
+        Eval eval = new Eval(new Runner());
+        PollingPolicy policy = PollingPolicy.DEFAULT;
+        long waiterTimeout = policy.getMaxDelay() + 1000;
+        assertThat(eval.waitFor(driver, "true", 300000, policy), is(true));
+        assertThat(driver.scriptTimeouts, is(equalTo(Arrays.asList(301000L, waiterTimeout))));
+        assertThat(eval.waitFor(driver, "true", 300000, policy), is(true));
+        assertThat(driver.scriptTimeouts, is(equalTo(Arrays.asList(301000L, waiterTimeout, 301000L, waiterTimeout))));
+    }
+}
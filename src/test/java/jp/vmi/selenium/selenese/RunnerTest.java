@@ -2,6 +2,10 @@ package jp.vmi.selenium.selenese;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -14,6 +18,7 @@ import jp.vmi.selenium.selenese.config.IConfig;
 import jp.vmi.selenium.selenese.result.Error;
 import jp.vmi.selenium.selenese.result.Result;
 import jp.vmi.selenium.testutils.TestBase;
+import jp.vmi.selenium.testutils.TestUtils;
 import jp.vmi.selenium.webdriver.DriverOptions;
 import jp.vmi.selenium.webdriver.DriverOptions.DriverOption;
 import jp.vmi.selenium.webdriver.WebDriverManager;
@@ -68,4 +73,85 @@ public class RunnerTest extends TestBase {
         runner.setDriver(driver);
         runner.run(tmp.getPath(), tmp.getPath());
     }
+
+    @Test
+    public void runInParallel() throws IOException {
+        File root = tmpDir.getRoot();
+        List<WebDriverManager> managers = new ArrayList<WebDriverManager>();
+        List<Runner> workers = new ArrayList<Runner>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                WebDriverManager workerManager = WebDriverManager.newInstance();
+                workerManager.setWebDriverFactory(WebDriverManager.HTMLUNIT);
+                managers.add(workerManager);
+                Runner worker = new Runner();
+                worker.setDriver(workerManager.get());
+                worker.setWebDriverPreparator(workerManager);
+                worker.setOverridingBaseURL(wsr.getBaseURL());
+                worker.setHtmlResultDir(root.getPath());
+                workers.add(worker);
+            }
+            Runner runner = new Runner();
+            runner.setHtmlResultDir(root.getPath());
+            Result result = runner.runInParallel(workers,
+                TestUtils.getScriptFile("testCase2"),
+                TestUtils.getScriptFile("testCase1"),
+                TestUtils.getScriptFile("simple"));
+            runner.finish();
+            assertThat(result.isSuccess(), is(true));
+            String index = FileUtils.readFileToString(new File(root, "index.html"), "UTF-8");
+            int tc2 = index.indexOf("TEST-testCase2.html");
+            int tc1 = index.indexOf("TEST-testCase1.html");
+            int simple = index.indexOf("TEST-simple.html");
+            assertThat(tc2, is(greaterThanOrEqualTo(0)));
+            assertThat(tc1, is(greaterThan(tc2)));
+            assertThat(simple, is(greaterThan(tc1)));
+        } finally {
+            for (WebDriverManager workerManager : managers)
+                workerManager.quitDriver();
+        }
+    }
+
+    @Test
+    public void runInParallelWithFailedWorker() throws IOException {
+        File root = tmpDir.getRoot();
+        List<WebDriverManager> managers = new ArrayList<WebDriverManager>();
+        List<Runner> workers = new ArrayList<Runner>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                WebDriverManager workerManager = WebDriverManager.newInstance();
+                workerManager.setWebDriverFactory(WebDriverManager.HTMLUNIT);
+                managers.add(workerManager);
+                Runner worker = new Runner() {
+                    @Override
+                    public Result execute(Selenese selenese) {
+                        if ("testCase1".equals(selenese.getBaseName()))
+                            throw new RuntimeException("worker failure");
+                        return super.execute(selenese);
+                    }
+                };
+                worker.setDriver(workerManager.get());
+                worker.setWebDriverPreparator(workerManager);
+                worker.setOverridingBaseURL(wsr.getBaseURL());
+                worker.setHtmlResultDir(root.getPath());
+                workers.add(worker);
+            }
+            Runner runner = new Runner();
+            runner.setHtmlResultDir(root.getPath());
+            Result result = runner.runInParallel(workers,
+                TestUtils.getScriptFile("testCase2"),
+                TestUtils.getScriptFile("testCase1"),
+                TestUtils.getScriptFile("simple"));
+            runner.finish();
+            assertThat(result, is(instanceOf(Error.class)));
+            assertThat(result.getMessage(), containsString("worker failure"));
+            // the reports of the other test-suites are not lost.
+            String index = FileUtils.readFileToString(new File(root, "index.html"), "UTF-8");
+            assertThat(index, containsString("TEST-testCase2.html"));
+            assertThat(index, containsString("TEST-simple.html"));
+        } finally {
+            for (WebDriverManager workerManager : managers)
+                workerManager.quitDriver();
+        }
+    }
 }
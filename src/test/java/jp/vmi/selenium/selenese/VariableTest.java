@@ -2,6 +2,7 @@ package jp.vmi.selenium.selenese;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.openqa.selenium.WebDriver;
 
 import jp.vmi.selenium.selenese.command.Command;
 import jp.vmi.selenium.selenese.command.CommandFactory;
@@ -112,4 +113,46 @@ public class VariableTest extends TestBase {
         assertThat((String) varsMap.get("var01"), is("result01"));
         assertThat((String) varsMap.get("var02"), is("result02"));
     }
+
+    /**
+     * Test of synchronizing only modified "storedVars" with the browser.
+     */
+    @Test
+    public void evalWithStoredVarsIncrementally() {
+        WebDriver driver = runner.getWrappedDriver();
+        driver.get(wsr.getBaseURL());
+        Eval eval = runner.getEval();
+        VarsMap varsMap = runner.getVarsMap();
+        varsMap.put("a", "1");
+        varsMap.put("b", "2");
+        assertThat(eval.eval(driver, "storedVars['c'] = storedVars['a'] + storedVars['b'], delete storedVars['b'], 'ok'"),
+            is((Object) "ok"));
+        assertThat(varsMap.get("c"), is((Object) "12"));
+        assertThat(varsMap.containsKey("b"), is(false));
+        varsMap.put("a", "3");
+        varsMap.remove("c");
+        assertThat(String.valueOf(eval.eval(driver, "storedVars['a'] + ':' + storedVars['b'] + ':' + storedVars['c']")),
+            is("3:undefined:undefined"));
+        // the browser side cache is lost by page transition.
+        driver.get(wsr.getBaseURL());
+        varsMap.put("d", "4");
+        assertThat(String.valueOf(eval.eval(driver, "storedVars['a'] + storedVars['d'] + storedVars['KEY_ENTER'].length")),
+            is("341"));
+    }
+
+    /**
+     * Test of reusing compiled script.
+     */
+    @Test
+    public void evalCache() {
+        WebDriver driver = runner.getWrappedDriver();
+        driver.get(wsr.getBaseURL());
+        Eval eval = runner.getEval();
+        runner.getVarsMap().put("a", "1");
+        for (int i = 0; i < 3; i++)
+            assertThat(String.valueOf(eval.eval(driver, "storedVars['a'] + 'b'")), is("1b"));
+        assertThat(eval.eval(driver, "storedVars['a']", "Number"), is((Object) 1L));
+        assertThat(eval.getCacheHitCount(), is(2L));
+        assertThat(eval.getCacheMissCount(), is(2L));
+    }
 }
@@ -0,0 +1,71 @@
+package jp.vmi.selenium.selenese;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+/**
+ * Test of {@link VarsTemplate}.
+ */
+@SuppressWarnings("javadoc")
+public class VarsTemplateTest {
+
+    private static final String[] EXPRS = {
+        "",
+        "abc",
+        "${a}",
+        "x${a}y${b}z",
+        "${undefined}",
+        "${a}${undefined}${b}",
+        "$${a}",
+        "$$${a}",
+        "${a}$${b}${b}",
+        "${}",
+        "${a",
+        "${a${b}}",
+        "${r}",
+        "${n}",
+        "${KEY_ENTER}",
+    };
+
+    @Test
+    public void sameAsReplaceVars() {
+        VarsMap varsMap = new VarsMap();
+        varsMap.put("a", "A");
+        varsMap.put("b", 123);
+        varsMap.put("r", "[${a}]");
+        varsMap.put("n", null);
+        varsMap.put("aA", "nested");
+        for (String expr : EXPRS)
+            assertThat(expr, VarsTemplate.compile(expr).render(varsMap), is(equalTo(varsMap.replaceVars(expr))));
+    }
+
+    @Test
+    public void noVariables() {
+        String expr = "no variables";
+        VarsTemplate template = VarsTemplate.compile(expr);
+        assertThat(template.hasVariables(), is(false));
+        assertThat(template.render(new VarsMap()), is(sameInstance(expr)));
+    }
+
+    @Test
+    public void onlyEscapedReferences() {
+        VarsTemplate template = VarsTemplate.compile("x$${a}y");
+        assertThat(template.hasVariables(), is(false));
+        VarsMap varsMap = new VarsMap();
+        String result = template.render(varsMap);
+        assertThat(result, is("x${a}y"));
+        assertThat(template.render(varsMap), is(sameInstance(result)));
+    }
+
+    @Test
+    public void mayBeEnclosedBy() {
+        String[] possible = { "javascript{1}", "javascript{}", "javascript{${a}}", "${a}", "java${a}}", "${a}x}", "${a${b}}" };
+        for (String expr : possible)
+            assertThat(expr, VarsTemplate.compile(expr).mayBeEnclosedBy("javascript{", "}"), is(true));
+        String[] impossible = { "", "abc", "javascript{", "javascript{1} ", "abc${a}}", "javascript{${a} " };
+        for (String expr : impossible)
+            assertThat(expr, VarsTemplate.compile(expr).mayBeEnclosedBy("javascript{", "}"), is(false));
+    }
+}
@@ -39,4 +39,24 @@ public class AssertionTest extends TestBase {
         Result result = runner.execute(testCase);
         assertThat(result.getMessage(), is("Failure: Assertion failed (Result: [assertion test] / Expected: [title])"));
     }
+
+    /**
+     * test of reporting "not found" before an invalid pattern.
+     *
+     * @throws IOException exception.
+     */
+    @Test
+    public void notFoundBeforeInvalidPattern() throws IOException {
+        setWebDriverFactory(WebDriverManager.HTMLUNIT, new DriverOptions());
+        Runner runner = new Runner();
+        runner.setDriver(manager.get());
+        runner.setOverridingBaseURL(wsr.getBaseURL());
+        CommandFactory cf = runner.getCommandFactory();
+
+        TestCase testCase = Binder.newTestCase("dummy", "dummy", wsr.getBaseURL());
+        testCase.addCommand(cf, "open", "/assertion.html");
+        testCase.addCommand(cf, "assertText", "id=missing", "regexp:(");
+        Result result = runner.execute(testCase);
+        assertThat(result.getMessage(), is("Failure: Assertion failed (Element id=missing not found)"));
+    }
 }
@@ -0,0 +1,83 @@
+package jp.vmi.selenium.selenese.command;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import jp.vmi.selenium.selenese.Runner;
+
+/**
+ * Benchmark of creating commands by {@link CommandFactory}.
+ * <p>
+ * Run by "mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=jp.vmi.selenium.selenese.command.CommandFactoryBenchmark".
+ * </p>
+ */
+@SuppressWarnings("javadoc")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CommandFactoryBenchmark {
+
+    private static final int COMMAND_COUNT = 10000;
+
+    // typical commands of recorded test-cases.
+    private static final String[][] COMMANDS = {
+        { "open", "/index.html" },
+        { "clickAndWait", "link=Sign in" },
+        { "type", "id=username", "user" },
+        { "verifyTextPresent", "Welcome" },
+        { "assertText", "css=h1", "glob:Welcome*" },
+        { "waitForElementPresent", "id=result" },
+        { "verifyNotVisible", "id=spinner" },
+        { "storeText", "id=total", "total" },
+        { "echo", "${total}" },
+        { "assertConfirmation", "Are you sure?" },
+    };
+
+    private Runner runner;
+
+    @Setup
+    public void setup() {
+        runner = new Runner();
+    }
+
+    private static ICommand newCommand(CommandFactory factory, int i) {
+        String[] command = COMMANDS[i % COMMANDS.length];
+        String[] args = new String[command.length - 1];
+        System.arraycopy(command, 1, args, 0, args.length);
+        return factory.newCommand(i + 1, command[0], args);
+    }
+
+    @Benchmark
+    public void resolveEveryTime(Blackhole bh) {
+        // a new factory has no resolved command.
+        for (int i = 0; i < COMMAND_COUNT; i++)
+            bh.consume(newCommand(new CommandFactory(runner), i));
+    }
+
+    @Benchmark
+    public void resolveOnce(Blackhole bh) {
+        CommandFactory factory = new CommandFactory(runner);
+        for (int i = 0; i < COMMAND_COUNT; i++)
+            bh.consume(newCommand(factory, i));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new org.openjdk.jmh.runner.Runner(new OptionsBuilder().include(CommandFactoryBenchmark.class.getSimpleName()).build()).run();
+    }
+}
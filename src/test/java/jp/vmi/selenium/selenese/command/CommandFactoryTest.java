@@ -3,12 +3,20 @@ package jp.vmi.selenium.selenese.command;
 import org.junit.Before;
 import org.junit.Test;
 
+import jp.vmi.selenium.selenese.Context;
 import jp.vmi.selenium.selenese.Runner;
+import jp.vmi.selenium.selenese.TestCase;
 import jp.vmi.selenium.selenese.cmdproc.CustomCommandProcessor;
+import jp.vmi.selenium.selenese.inject.Binder;
+import jp.vmi.selenium.selenese.result.Result;
+import jp.vmi.selenium.selenese.subcommand.AbstractSubCommand;
 import jp.vmi.selenium.testutils.TestBase;
 import jp.vmi.selenium.webdriver.DriverOptions;
 import jp.vmi.selenium.webdriver.WebDriverManager;
 
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
 /**
  * Test for {@link CommandFactory}.
  */
@@ -121,4 +129,28 @@ public class CommandFactoryTest extends TestBase {
         CommandFactory factory = runner.getCommandFactory();
         factory.newCommand(1, "type", "aaa", "");
     }
+
+    /**
+     * Test of resolving command after registering sub-command.
+     */
+    @Test
+    public void registerSubCommand() {
+        CommandFactory factory = runner.getCommandFactory();
+        factory.newCommand(1, "assertTitle", "overridden");
+        runner.getSubCommandMap().register(new AbstractSubCommand<String>() {
+            @Override
+            public String getName() {
+                return "getTitle";
+            }
+
+            @Override
+            public String execute(Context context, String... args) {
+                return "overridden";
+            }
+        });
+        TestCase testCase = Binder.newTestCase("dummy", "dummy", "http://localhost/");
+        testCase.addCommand(factory, "assertTitle", "overridden");
+        Result result = runner.execute(testCase);
+        assertThat(result.isSuccess(), is(true));
+    }
 }
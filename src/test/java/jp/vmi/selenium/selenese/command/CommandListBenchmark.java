@@ -0,0 +1,104 @@
+package jp.vmi.selenium.selenese.command;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import jp.vmi.selenium.selenese.Context;
+import jp.vmi.selenium.selenese.Runner;
+import jp.vmi.selenium.selenese.result.CommandResultList;
+import jp.vmi.selenium.selenese.result.Result;
+import jp.vmi.selenium.webdriver.NullDriver;
+
+/**
+ * Benchmark of the execution loop of {@link CommandList}.
+ * <p>
+ * Run by "mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=jp.vmi.selenium.selenese.command.CommandListBenchmark".
+ * </p>
+ */
+@SuppressWarnings("javadoc")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CommandListBenchmark {
+
+    private static final int COMMAND_COUNT = 10000;
+
+    // replaces variables by StrSubstitutor and evaluates all arguments as before.
+    private static class LegacyCommandList extends CommandList {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected String[] replaceVarsInArguments(Context context, ICommand command) {
+            return context.getVarsMap().replaceVarsForArray(command.getArguments());
+        }
+
+        @Override
+        protected void evalCurArgs(Context context, ICommand command, String[] curArgs) {
+            evalCurArgs(context, curArgs);
+        }
+    }
+
+    private Runner runner;
+    private CommandList legacyCommandList;
+    private CommandList commandList;
+
+    private static void addCommands(CommandFactory factory, CommandList commandList) {
+        for (int i = 0; i < COMMAND_COUNT; i++) {
+            int index = i + 1;
+            switch (i % 4) {
+            case 0:
+                commandList.add(factory.newCommand(index, "store", "value" + i, "v" + (i % 10)));
+                break;
+            case 1:
+                commandList.add(factory.newCommand(index, "store", "${v" + (i % 10) + "}-" + i, "w" + (i % 10)));
+                break;
+            case 2:
+                commandList.add(factory.newCommand(index, "store", "//div[@id='item" + i + "']/span[text()='${w1}']", "x"));
+                break;
+            default:
+                commandList.add(factory.newCommand(index, "store", "id=field" + i, "${w" + (i % 10) + "}"));
+                break;
+            }
+        }
+    }
+
+    @Setup
+    public void setup() {
+        runner = new Runner();
+        runner.setDriver(new NullDriver());
+        legacyCommandList = new LegacyCommandList();
+        addCommands(runner.getCommandFactory(), legacyCommandList);
+        commandList = new CommandList();
+        addCommands(runner.getCommandFactory(), commandList);
+    }
+
+    @Benchmark
+    public Result executeLegacy() {
+        return legacyCommandList.execute(runner, new CommandResultList());
+    }
+
+    @Benchmark
+    public Result execute() {
+        return commandList.execute(runner, new CommandResultList());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new org.openjdk.jmh.runner.Runner(new OptionsBuilder().include(CommandListBenchmark.class.getSimpleName()).build()).run();
+    }
+}
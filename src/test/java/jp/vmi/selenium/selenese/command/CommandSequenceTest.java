@@ -100,6 +100,7 @@ public class CommandSequenceTest {
             String r = RESULTS[i++];
             sut.increment(c);
             assertThat(sut.toString(), is(r));
+            assertThat(sut.snapshot().toString(), is(r));
         }
         sut.increment(cl.get(2));
         assertThat(sut.toString(), is("6-1"));
@@ -108,4 +109,30 @@ public class CommandSequenceTest {
         sut.increment(cl.get(2));
         assertThat(sut.toString(), is("8-1"));
     }
+
+    @Test
+    public void deepNesting() {
+        CommandSequence parent = new CommandSequence(null);
+        parent.increment(build(C).get(0));
+        CommandSequence sut = new CommandSequence(parent);
+        List<ICommand> cl = build(W, W, W, W, W, C, E, E, E, E, E, C);
+        for (int i = 0; i < 6; i++)
+            sut.increment(cl.get(i));
+        assertThat(sut.toString(), is("1-1-2-2-2-2-2"));
+        sut.increment(cl.get(4));
+        assertThat(sut.toString(), is("1-1-2-2-2-3-1"));
+        CommandSequence.Snapshot snapshot = sut.snapshot();
+        sut.increment(cl.get(11));
+        assertThat(sut.toString(), is("1-2"));
+        assertThat(snapshot.getLevel(), is(7));
+        assertThat(snapshot.toString(), is("1-1-2-2-2-3-1"));
+    }
+
+    @Test
+    public void snapshotOfString() {
+        CommandSequence.Snapshot snapshot = CommandSequence.Snapshot.valueOf("1-2-3");
+        assertThat(snapshot.getLevel(), is(3));
+        assertThat(snapshot.toString(), is("1-2-3"));
+        assertThat(CommandSequence.Snapshot.valueOf("").getLevel(), is(0));
+    }
 }
@@ -0,0 +1,36 @@
+package jp.vmi.selenium.selenese.highlight;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+
+import jp.vmi.selenium.selenese.locator.Locator;
+import jp.vmi.selenium.selenese.locator.WebDriverElementFinder;
+
+import static org.junit.Assert.*;
+
+@SuppressWarnings("javadoc")
+public class HighlightStyleTest {
+
+    @Test
+    public void staleElementOnLookupIsIgnored() {
+        WebDriverElementFinder finder = new WebDriverElementFinder() {
+            @Override
+            public WebElement findElement(WebDriver driver, String locator, List<Locator> selectedFrameLocators) {
+                throw new StaleElementReferenceException("stale");
+            }
+        };
+        WebDriver driver = new HtmlUnitDriver(true);
+        try {
+            HighlightStyle style = HighlightStyle.ELEMENT_STYLES[0];
+            assertNull(style.doHighlight(driver, finder, "id=foo", Collections.<Locator> emptyList()));
+        } finally {
+            driver.quit();
+        }
+    }
+}
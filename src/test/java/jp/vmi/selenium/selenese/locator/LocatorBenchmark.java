@@ -0,0 +1,68 @@
+package jp.vmi.selenium.selenese.locator;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark of parsing locators.
+ * <p>
+ * Run by "mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=jp.vmi.selenium.selenese.locator.LocatorBenchmark".
+ * </p>
+ */
+@SuppressWarnings("javadoc")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class LocatorBenchmark {
+
+    // typical locators repeated in waitFor* retry loops.
+    private static final String[] LOCATORS = {
+        "id=username",
+        "name=password",
+        "css=div.login-form > input[type=\"submit\"]",
+        "//div[@id='main']/table/tbody/tr[3]/td[2]/a",
+        "link=exact:Sign in",
+        "document.forms[0].elements[1]",
+        "submitButton",
+        "css=select#country" + Locator.OPTION_LOCATOR_SEPARATOR + "label=Japan",
+    };
+
+    private WebDriverElementFinder finder;
+
+    @Setup
+    public void setup() {
+        finder = new WebDriverElementFinder();
+    }
+
+    @Benchmark
+    public void parse(Blackhole bh) {
+        for (String locator : LOCATORS)
+            bh.consume(new Locator(locator));
+    }
+
+    @Benchmark
+    public void parseInterned(Blackhole bh) {
+        for (String locator : LOCATORS)
+            bh.consume(finder.parseLocator(locator));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new org.openjdk.jmh.runner.Runner(new OptionsBuilder().include(LocatorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
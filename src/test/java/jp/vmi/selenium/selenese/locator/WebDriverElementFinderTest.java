@@ -0,0 +1,230 @@
+package jp.vmi.selenium.selenese.locator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.openqa.selenium.Alert;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+import org.openqa.selenium.remote.RemoteWebElement;
+
+import com.thoughtworks.selenium.SeleniumException;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+@SuppressWarnings("javadoc")
+public class WebDriverElementFinderTest {
+
+    private static class CountingDriver extends HtmlUnitDriver {
+
+        public String domGeneration = "gen:0";
+        public int findCount = 0;
+        public int defaultContentCount = 0;
+        public int batchCount = 0;
+        public int scriptCount = 0;
+
+        public int getRoundTripCount() {
+            return findCount + scriptCount;
+        }
+
+        @Override
+        public TargetLocator switchTo() {
+            final TargetLocator targetLocator = super.switchTo();
+            return new TargetLocator() {
+                @Override
+                public WebDriver frame(int index) {
+                    return targetLocator.frame(index);
+                }
+
+                @Override
+                public WebDriver frame(String nameOrId) {
+                    return targetLocator.frame(nameOrId);
+                }
+
+                @Override
+                public WebDriver frame(WebElement frameElement) {
+                    return targetLocator.frame(frameElement);
+                }
+
+                @Override
+                public WebDriver parentFrame() {
+                    return targetLocator.parentFrame();
+                }
+
+                @Override
+                public WebDriver window(String nameOrHandle) {
+                    return targetLocator.window(nameOrHandle);
+                }
+
+                @Override
+                public WebDriver defaultContent() {
+                    defaultContentCount++;
+                    return targetLocator.defaultContent();
+                }
+
+                @Override
+                public WebElement activeElement() {
+                    return targetLocator.activeElement();
+                }
+
+                @Override
+                public Alert alert() {
+                    return targetLocator.alert();
+                }
+            };
+        }
+
+        @Override
+        public Object executeScript(String script, Object... args) {
+            if (args.length == 1 && args[0] instanceof List) {
+                // batch resolution: unsupported locators and locators whose argument is "missing" are not found.
+                batchCount++;
+                List<Object> result = new ArrayList<Object>();
+                for (Object loc : (List<?>) args[0]) {
+                    Object arg = ((List<?>) loc).get(1);
+                    boolean isMissing = "".equals(arg) || "missing".equals(arg);
+                    result.add(isMissing ? null : Arrays.<WebElement> asList(new RemoteWebElement()));
+                }
+                return result;
+            }
+            scriptCount++;
+            if (args.length == 1) // frame tree: no frames.
+                return Arrays.asList(0L, 0L, Collections.emptyList());
+            // DOM generation check and element lookup: elements whose argument is "missing" are not found.
+            if (domGeneration == null || domGeneration.equals(args[0]) || "".equals(args[1]))
+                return Collections.singletonList(domGeneration);
+            List<WebElement> elements = "missing".equals(args[2])
+                ? Collections.<WebElement> emptyList() : Arrays.<WebElement> asList(new RemoteWebElement());
+            return Arrays.asList(domGeneration, elements);
+        }
+
+        @Override
+        public List<WebElement> findElements(By by) {
+            findCount++;
+            if (by instanceof By.ByTagName)
+                return Collections.emptyList();
+            return Arrays.<WebElement> asList(new RemoteWebElement());
+        }
+    }
+
+    @Test
+    public void cacheElements() {
+        CountingDriver driver = new CountingDriver();
+        WebDriverElementFinder finder = new WebDriverElementFinder();
+        finder.setCacheEnabled(true);
+        WebElement element = finder.findElement(driver, "id=foo");
+        assertThat(finder.findElement(driver, "id=foo"), is(sameInstance(element)));
+        assertThat(driver.scriptCount, is(2));
+        assertThat(finder.getCacheHitCount(), is(1L));
+        assertThat(finder.getCacheMissCount(), is(1L));
+
+        // DOM is changed.
+        driver.domGeneration = "gen:1";
+        assertThat(finder.findElement(driver, "id=foo"), is(not(sameInstance(element))));
+        assertThat(driver.scriptCount, is(3));
+
+        finder.invalidateCache();
+        finder.findElement(driver, "id=foo");
+        assertThat(driver.scriptCount, is(4));
+        assertThat(driver.findCount, is(0));
+        assertThat(finder.getCacheHitCount(), is(1L));
+        assertThat(finder.getCacheMissCount(), is(3L));
+    }
+
+    @Test
+    public void roundTrips() {
+        CountingDriver driver = new CountingDriver();
+        WebDriverElementFinder finder = new WebDriverElementFinder();
+        finder.setCacheEnabled(true);
+        // cache miss.
+        finder.findElement(driver, "id=foo");
+        assertThat(driver.getRoundTripCount(), is(1));
+        // cache hit.
+        finder.findElement(driver, "id=foo");
+        assertThat(driver.getRoundTripCount(), is(2));
+        // cache miss of the locator which is not findable by script.
+        finder.findElement(driver, "link=foo");
+        assertThat(driver.getRoundTripCount(), is(4));
+        // cache hit of the locator which is not findable by script.
+        finder.findElement(driver, "link=foo");
+        assertThat(driver.getRoundTripCount(), is(5));
+        // not found: the lookup in the selected frame is not repeated before searching child frames.
+        try {
+            finder.findElement(driver, "id=missing");
+            fail();
+        } catch (SeleniumException e) {
+            assertThat(driver.getRoundTripCount(), is(7));
+        }
+        assertThat(finder.getCacheHitCount(), is(2L));
+        assertThat(finder.getCacheMissCount(), is(3L));
+    }
+
+    @Test
+    public void notCached() {
+        CountingDriver driver = new CountingDriver();
+        WebDriverElementFinder finder = new WebDriverElementFinder();
+        finder.setCacheEnabled(true);
+        // pseudo-classes may depend on the state which is not reflected to DOM.
+        finder.findElement(driver, "css=input:checked");
+        finder.findElement(driver, "css=input:checked");
+        assertThat(driver.findCount, is(2));
+
+        // MutationObserver is not supported.
+        driver.domGeneration = null;
+        finder.findElement(driver, "id=foo");
+        finder.findElement(driver, "id=foo");
+        assertThat(driver.findCount, is(4));
+        assertThat(finder.getCacheHitCount(), is(0L));
+        assertThat(finder.getCacheMissCount(), is(0L));
+    }
+
+    @Test
+    public void skipSwitchingFrame() {
+        CountingDriver driver = new CountingDriver();
+        WebDriverElementFinder finder = new WebDriverElementFinder();
+        finder.findElement(driver, "id=foo");
+        finder.findElement(driver, "id=bar");
+        assertThat(driver.defaultContentCount, is(1));
+        finder.invalidateSwitchedFrame();
+        finder.findElement(driver, "id=foo");
+        assertThat(driver.defaultContentCount, is(2));
+        // another driver.
+        CountingDriver driver2 = new CountingDriver();
+        finder.findElement(driver2, "id=foo");
+        assertThat(driver2.defaultContentCount, is(1));
+    }
+
+    @Test
+    public void findElementsBatch() {
+        CountingDriver driver = new CountingDriver();
+        WebDriverElementFinder finder = new WebDriverElementFinder();
+        List<List<WebElement>> elements = finder.findElementsBatch(driver, Arrays.asList("id=foo", "css=.bar", "link=baz", "name=missing"));
+        assertThat(elements, hasSize(4));
+        assertThat(driver.batchCount, is(1));
+        // "link" locator is not batchable, and "name=missing" is not found in the batch.
+        assertThat(driver.findCount, is(2));
+
+        // a single batchable locator is resolved without batch.
+        finder.findElementsBatch(driver, Arrays.asList("id=foo", "link=baz"));
+        assertThat(driver.batchCount, is(1));
+        assertThat(driver.findCount, is(4));
+    }
+
+    @Test
+    public void parseLocator() {
+        WebDriverElementFinder finder = new WebDriverElementFinder();
+        Locator ploc = finder.parseLocator("id=foo");
+        assertThat(finder.parseLocator("id=foo"), is(sameInstance(ploc)));
+        assertThat(ploc.frameIndexList, is(empty()));
+        Locator frame = ploc.withFrameIndexList(Arrays.asList(1, 2));
+        assertThat(frame.frameIndexList, contains(1, 2));
+        assertThat(frame.toString(), is(ploc.toString()));
+        assertThat(ploc.frameIndexList, is(empty()));
+    }
+}
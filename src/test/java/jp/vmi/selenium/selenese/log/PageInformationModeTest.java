@@ -0,0 +1,38 @@
+package jp.vmi.selenium.selenese.log;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+/**
+ * Test of {@link PageInformationMode}.
+ */
+@SuppressWarnings("javadoc")
+public class PageInformationModeTest {
+
+    @Test
+    public void lookup() {
+        assertThat(PageInformationMode.lookup("none"), is(PageInformationMode.NONE));
+        assertThat(PageInformationMode.lookup("on-change"), is(PageInformationMode.ON_CHANGE));
+        assertThat(PageInformationMode.lookup("ON-FAIL"), is(PageInformationMode.ON_FAIL));
+        assertThat(PageInformationMode.lookup("always"), is(PageInformationMode.ALWAYS));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void lookupInvalid() {
+        PageInformationMode.lookup("sometimes");
+    }
+
+    @Test
+    public void mayChangePage() {
+        assertThat(PageInformationMode.mayChangePage("open"), is(true));
+        assertThat(PageInformationMode.mayChangePage("click"), is(true));
+        assertThat(PageInformationMode.mayChangePage("clickAt"), is(true));
+        assertThat(PageInformationMode.mayChangePage("typeAndWait"), is(true));
+        assertThat(PageInformationMode.mayChangePage("submit"), is(true));
+        assertThat(PageInformationMode.mayChangePage("type"), is(false));
+        assertThat(PageInformationMode.mayChangePage("assertText"), is(false));
+        assertThat(PageInformationMode.mayChangePage("echo"), is(false));
+    }
+}
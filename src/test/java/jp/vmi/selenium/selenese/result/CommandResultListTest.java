@@ -0,0 +1,44 @@
+package jp.vmi.selenium.selenese.result;
+
+import org.junit.Test;
+
+import jp.vmi.selenium.selenese.Runner;
+import jp.vmi.selenium.selenese.command.CommandFactory;
+import jp.vmi.selenium.selenese.command.ICommand;
+import jp.vmi.selenium.selenese.result.Result.Level;
+
+import static jp.vmi.selenium.selenese.result.Success.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+/**
+ * Test of {@link CommandResultList}.
+ */
+@SuppressWarnings("javadoc")
+public class CommandResultListTest {
+
+    private static CommandResult cresult(ICommand command, Result result) {
+        return new CommandResult("1", command, null, result, 0, 0);
+    }
+
+    @Test
+    public void countByLatestResult() {
+        CommandFactory cf = new Runner().getCommandFactory();
+        ICommand c1 = cf.newCommand(1, "echo", "c1");
+        ICommand c2 = cf.newCommand(2, "echo", "c2");
+        ICommand c3 = cf.newCommand(3, "echo", "c3");
+        CommandResultList cresultList = new CommandResultList();
+        cresultList.add(cresult(c1, SUCCESS));
+        cresultList.add(cresult(c2, new Failure("failure")));
+        cresultList.add(cresult(c3, new Warning("warning")));
+        // c1 is executed again in a loop.
+        cresultList.add(cresult(c1, new Error("error")));
+        assertThat(cresultList.getCommandCount(Level.SUCCESS), is(0));
+        assertThat(cresultList.getCommandCount(Level.WARNING), is(1));
+        assertThat(cresultList.getCommandCount(Level.FAILURE), is(1));
+        assertThat(cresultList.getCommandCount(Level.ERROR), is(1));
+        assertThat(cresultList.getResults(c1), hasSize(2));
+        assertThat(cresultList.getResults(c2), hasSize(1));
+        assertThat(cresultList.getResult().getLevel(), is(Level.ERROR));
+    }
+}
@@ -0,0 +1,122 @@
+package jp.vmi.selenium.selenese.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import jp.vmi.selenium.selenese.utils.LogRecorder.Level;
+import jp.vmi.selenium.selenese.utils.LogRecorder.LogMessage;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+/**
+ * Test of {@link LogRecorder}.
+ */
+@SuppressWarnings("javadoc")
+public class LogRecorderTest {
+
+    private static LogRecorder newLogRecorder(int bufferSize) {
+        return new LogRecorder(new PrintStream(new ByteArrayOutputStream()), bufferSize) {
+            private long time = 0;
+
+            @Override
+            public long now() {
+                return ++time;
+            }
+        };
+    }
+
+    private static List<String> messagesOf(List<LogMessage> lmsgs) {
+        List<String> result = new ArrayList<String>();
+        for (LogMessage lmsg : lmsgs)
+            result.add(lmsg.message);
+        return result;
+    }
+
+    private static void log(LogRecorder lr, int count) {
+        for (int i = 0; i < count; i++) {
+            if (i % 3 == 2)
+                lr.error("error" + i + "あ");
+            else
+                lr.info("info" + i);
+        }
+    }
+
+    @Test
+    public void unlimited() {
+        LogRecorder lr = newLogRecorder(0);
+        log(lr, 100);
+        List<LogMessage> lmsgs = lr.getMessages();
+        assertThat(lmsgs, hasSize(100));
+        assertThat(lmsgs.get(0).message, is("info0"));
+        assertThat(lmsgs.get(99).message, is("info99"));
+        assertThat(lr.getErrorMessages(), hasSize(33));
+    }
+
+    @Test
+    public void spillOldMessages() {
+        LogRecorder expected = newLogRecorder(0);
+        log(expected, 1000);
+        LogRecorder lr = newLogRecorder(10);
+        log(lr, 1000);
+        List<LogMessage> lmsgs = lr.getMessages();
+        assertThat(messagesOf(lmsgs), is(messagesOf(expected.getMessages())));
+        assertThat(messagesOf(lr.getErrorMessages()), is(messagesOf(expected.getErrorMessages())));
+        LogMessage first = lmsgs.get(0);
+        assertThat(first.date, is(1L));
+        assertThat(first.level, is(Level.INFO));
+        LogMessage error = lmsgs.get(2);
+        assertThat(error.date, is(3L));
+        assertThat(error.level, is(Level.ERROR));
+        assertThat(error.message, is("error2あ"));
+        // read spilled messages again after logging more.
+        lr.info("last");
+        assertThat(lr.getMessages(), hasSize(1001));
+        assertThat(lr.getMessages().get(501).message, is("info501"));
+        assertThat(lr.getMessages().get(1000).message, is("last"));
+    }
+
+    @Test
+    public void readSpilledMessagesByWindows() {
+        LogRecorder lr = new LogRecorder(new PrintStream(new ByteArrayOutputStream()), 10) {
+            @Override
+            protected long getMapWindowSize() {
+                return 100;
+            }
+        };
+        log(lr, 100);
+        String large = StringUtils.repeat("large", 100);
+        lr.info(large);
+        for (int i = 0; i < 10; i++)
+            lr.info("last" + i);
+        List<LogMessage> lmsgs = lr.getMessages();
+        assertThat(lmsgs.get(0).message, is("info0"));
+        assertThat(lmsgs.get(99).message, is("info99"));
+        assertThat(lmsgs.get(100).message, is(large));
+        assertThat(lmsgs.get(1).message, is("info1"));
+        assertThat(lmsgs.get(110).message, is("last9"));
+    }
+
+    @Test
+    public void close() {
+        LogRecorder lr = newLogRecorder(10);
+        log(lr, 100);
+        lr.close();
+        assertThat(lr.getMessages(), hasSize(100));
+        assertThat(lr.getMessages().get(99).message, is("info99"));
+        try {
+            lr.getMessages().get(0);
+            fail();
+        } catch (IllegalStateException e) {
+            // the spilled messages are released.
+        }
+        // messages after closing are kept in memory.
+        log(lr, 100);
+        assertThat(lr.getMessages().get(199).message, is("info99"));
+    }
+}
@@ -0,0 +1,87 @@
+package jp.vmi.selenium.selenese.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+/**
+ * Test of {@link ReportPipeline}.
+ */
+@SuppressWarnings("javadoc")
+public class ReportPipelineTest {
+
+    @Test
+    public void drainAfterAllTasks() {
+        ReportPipeline pipeline = new ReportPipeline(2);
+        final List<Integer> done = Collections.synchronizedList(new ArrayList<Integer>());
+        for (int i = 0; i < 10; i++) {
+            final int num = i;
+            // the queue is smaller than the number of tasks, so submit() blocks.
+            pipeline.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    done.add(num);
+                }
+            });
+        }
+        pipeline.drain();
+        assertThat(done, contains(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+    }
+
+    @Test
+    public void rethrowFailure() {
+        ReportPipeline pipeline = new ReportPipeline();
+        pipeline.submit(new Runnable() {
+            @Override
+            public void run() {
+                throw new IllegalStateException("failed");
+            }
+        });
+        pipeline.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+        try {
+            pipeline.drain();
+            fail("No exception.");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("failed"));
+        }
+        // the failure is reported only once.
+        pipeline.drain();
+    }
+
+    @Test
+    public void keepThreadsAlive() throws InterruptedException {
+        ReportPipeline pipeline = new ReportPipeline();
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                threads.add(Thread.currentThread());
+            }
+        };
+        pipeline.submit(task);
+        pipeline.drain();
+        // longer than the keep-alive time after release().
+        Thread.sleep(1500);
+        pipeline.submit(task);
+        pipeline.drain();
+        assertThat(threads.get(1), is(sameInstance(threads.get(0))));
+        pipeline.release();
+        pipeline.submit(task);
+        pipeline.drain();
+        assertThat(threads, hasSize(3));
+    }
+}
@@ -0,0 +1,66 @@
+package jp.vmi.selenium.selenese.utils;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import jp.vmi.selenium.selenese.utils.SeleniumUtils.SeleniumPattern;
+
+/**
+ * Benchmark of matching string-matching patterns in assertions.
+ * <p>
+ * Run by "mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=jp.vmi.selenium.selenese.utils.SeleniumPatternBenchmark".
+ * </p>
+ */
+@SuppressWarnings("javadoc")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SeleniumPatternBenchmark {
+
+    private static final String INPUT = "Welcome to Selenese Runner, user0123!";
+
+    @Param({ "exact:Welcome to Selenese Runner, user0123!", "glob:Welcome*user????!", "regexp:user\\d+", "regexpi:^WELCOME.*RUNNER" })
+    public String pattern;
+
+    private SeleniumPattern precompiled;
+
+    @Setup
+    public void setup() {
+        precompiled = SeleniumPattern.compile(pattern);
+    }
+
+    @Benchmark
+    public boolean compileEveryTime() {
+        return new SeleniumPattern(pattern).matches(INPUT);
+    }
+
+    @Benchmark
+    public boolean cached() {
+        return SeleniumUtils.patternMatches(pattern, INPUT);
+    }
+
+    @Benchmark
+    public boolean precompiled() {
+        return precompiled.matches(INPUT);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new org.openjdk.jmh.runner.Runner(new OptionsBuilder().include(SeleniumPatternBenchmark.class.getSimpleName()).build()).run();
+    }
+}
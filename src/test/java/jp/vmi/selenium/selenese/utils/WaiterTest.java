@@ -0,0 +1,102 @@
+package jp.vmi.selenium.selenese.utils;
+
+import org.junit.Test;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+/**
+ * Test of {@link Waiter}.
+ */
+@SuppressWarnings("javadoc")
+public class WaiterTest {
+
+    private static class ObservableDriver extends HtmlUnitDriver {
+
+        public Object domChanged = true;
+        public int waitCount = 0;
+
+        @Override
+        public Object executeAsyncScript(String script, Object... args) {
+            waitCount++;
+            return domChanged;
+        }
+    }
+
+    @Test
+    public void sleepByBackoff() throws InterruptedException {
+        Waiter waiter = new Waiter(10000);
+        long start = System.currentTimeMillis();
+        // 5 + 10 + 20 + 40 ms
+        for (int i = 0; i < 4; i++)
+            waiter.sleep();
+        long elapsed = System.currentTimeMillis() - start;
+        assertThat(elapsed, is(greaterThanOrEqualTo(75L)));
+        assertThat(elapsed, is(lessThan(1000L)));
+        assertThat(waiter.isTimedOut(), is(false));
+    }
+
+    @Test
+    public void sleepUntilTimeout() throws InterruptedException {
+        Waiter waiter = new Waiter(30);
+        long start = System.currentTimeMillis();
+        while (!waiter.isTimedOut())
+            waiter.sleep();
+        assertThat(System.currentTimeMillis() - start, is(lessThan(1000L)));
+    }
+
+    @Test
+    public void waitForDomChange() throws InterruptedException {
+        ObservableDriver driver = new ObservableDriver();
+        Waiter waiter = new Waiter(10000);
+        waiter.waitForDomChange(driver);
+        waiter.waitForDomChange(driver);
+        assertThat(driver.waitCount, is(2));
+
+        // MutationObserver is not available.
+        driver.domChanged = null;
+        waiter.waitForDomChange(driver);
+        waiter.waitForDomChange(driver);
+        assertThat(driver.waitCount, is(3));
+    }
+
+    @Test
+    public void waitForAlwaysChangingDom() throws InterruptedException {
+        ObservableDriver driver = new ObservableDriver();
+        // DOM is always changed, so each wait ends by the minimum delay: 5 + 10 + 20 + 40 ms
+        Waiter waiter = new Waiter(10000);
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 4; i++)
+            waiter.waitForDomChange(driver);
+        assertThat(System.currentTimeMillis() - start, is(greaterThanOrEqualTo(75L)));
+        assertThat(driver.waitCount, is(4));
+    }
+
+    @Test
+    public void pollingPolicy() {
+        PollingPolicy policy = PollingPolicy.parse("10:1.5:30");
+        assertThat(policy.nextDelay(10), is(15L));
+        assertThat(policy.nextDelay(15), is(23L));
+        assertThat(policy.nextDelay(23), is(30L));
+        assertThat(policy.applyJitter(20), is(20L));
+        policy = PollingPolicy.parse("10:2:100:0.5");
+        for (int i = 0; i < 100; i++)
+            assertThat(policy.applyJitter(20), is(both(greaterThanOrEqualTo(10L)).and(lessThanOrEqualTo(30L))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidPollingPolicy() {
+        PollingPolicy.parse("10:0.5:100");
+    }
+
+    @Test
+    public void pollTotalWaitTime() throws InterruptedException {
+        Waiter.pollTotalWaitTime();
+        Waiter waiter = new Waiter(10000, new PollingPolicy(20, 1.0, 20, 0.0));
+        waiter.sleep();
+        waiter.sleep();
+        assertThat(Waiter.pollTotalWaitTime(), is(greaterThanOrEqualTo(40L)));
+        assertThat(Waiter.pollTotalWaitTime(), is(0L));
+    }
+}
@@ -0,0 +1,97 @@
+package jp.vmi.selenium.webdriver;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.openqa.selenium.WebDriver;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+/**
+ * Test of {@link WebDriverManager}.
+ */
+@SuppressWarnings("javadoc")
+public class WebDriverManagerTest {
+
+    private static class ProbeCountingFactory extends WebDriverFactory {
+
+        private final AtomicInteger probed = new AtomicInteger(0);
+
+        @Override
+        public WebDriver newInstance(DriverOptions driverOptions) {
+            return new NullDriver() {
+                @Override
+                public String getWindowHandle() {
+                    probed.incrementAndGet();
+                    return "window";
+                }
+            };
+        }
+    }
+
+    private static class StartCountingFactory extends WebDriverFactory {
+
+        private final AtomicInteger started = new AtomicInteger(0);
+
+        @Override
+        public WebDriver newInstance(DriverOptions driverOptions) {
+            started.incrementAndGet();
+            return new NullDriver();
+        }
+    }
+
+    @Test
+    public void warmPoolOnConfiguration() throws InterruptedException {
+        StartCountingFactory factory = new StartCountingFactory();
+        WebDriverManager manager = WebDriverManager.newInstance();
+        try {
+            manager.setWebDriverFactory(factory);
+            manager.setDriverPool(1, 2, 0);
+            long limit = System.currentTimeMillis() + 10000;
+            while (factory.started.get() < 2 && System.currentTimeMillis() < limit)
+                Thread.sleep(10);
+            assertThat(factory.started.get(), is(2));
+            assertThat(manager.get(), is(notNullValue()));
+            // min drivers and the driver for the first get() only.
+            Thread.sleep(200);
+            assertThat(factory.started.get(), is(2));
+        } finally {
+            manager.quitDriverAndPool();
+        }
+    }
+
+    @Test
+    public void skipProbeWithinLivenessWindow() {
+        ProbeCountingFactory factory = new ProbeCountingFactory();
+        WebDriverManager manager = WebDriverManager.newInstance();
+        try {
+            manager.setWebDriverFactory(factory);
+            manager.setLivenessWindow(60000);
+            WebDriver driver = manager.get();
+            manager.notifyDriverAlive(driver);
+            assertThat(manager.get(), is(sameInstance(driver)));
+            assertThat(factory.probed.get(), is(0));
+            manager.notifyDriverFailed(driver);
+            assertThat(manager.get(), is(sameInstance(driver)));
+            assertThat(factory.probed.get(), is(1));
+        } finally {
+            manager.quitDriverAndPool();
+        }
+    }
+
+    @Test
+    public void alwaysProbeWithoutLivenessWindow() {
+        ProbeCountingFactory factory = new ProbeCountingFactory();
+        WebDriverManager manager = WebDriverManager.newInstance();
+        try {
+            manager.setWebDriverFactory(factory);
+            WebDriver driver = manager.get();
+            manager.notifyDriverAlive(driver);
+            assertThat(manager.get(), is(sameInstance(driver)));
+            assertThat(factory.probed.get(), is(1));
+        } finally {
+            manager.quitDriverAndPool();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package jp.vmi.selenium.webdriver;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.openqa.selenium.WebDriver;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+/**
+ * Test of {@link WebDriverPool}.
+ */
+@SuppressWarnings("javadoc")
+public class WebDriverPoolTest {
+
+    private static class CountingFactory extends WebDriverFactory {
+
+        private final AtomicInteger started = new AtomicInteger(0);
+        private final AtomicInteger quitted = new AtomicInteger(0);
+
+        @Override
+        public WebDriver newInstance(DriverOptions driverOptions) {
+            started.incrementAndGet();
+            return new NullDriver() {
+                @Override
+                public void quit() {
+                    quitted.incrementAndGet();
+                }
+            };
+        }
+    }
+
+    private static void waitForIdleCount(WebDriverPool pool, int count) throws InterruptedException {
+        long limit = System.currentTimeMillis() + 10000;
+        while (pool.getIdleCount() != count) {
+            if (System.currentTimeMillis() > limit)
+                fail("Timed out waiting for idle count: " + count + " (actual: " + pool.getIdleCount() + ")");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void takePreStartedDriver() throws InterruptedException {
+        CountingFactory factory = new CountingFactory();
+        WebDriverPool pool = new WebDriverPool(factory, new DriverOptions(), 1, 2, 0);
+        try {
+            waitForIdleCount(pool, 1);
+            assertThat(pool.take(), is(notNullValue()));
+            assertThat(pool.getHitCount(), is(1));
+            assertThat(pool.getMissCount(), is(0));
+            waitForIdleCount(pool, 1);
+        } finally {
+            pool.close();
+        }
+        assertThat(factory.quitted.get(), is(1));
+    }
+
+    @Test
+    public void growOnMiss() throws InterruptedException {
+        CountingFactory factory = new CountingFactory();
+        WebDriverPool pool = new WebDriverPool(factory, new DriverOptions(), 0, 2, 0);
+        try {
+            assertThat(pool.getIdleCount(), is(0));
+            assertThat(pool.take(), is(notNullValue()));
+            assertThat(pool.getMissCount(), is(1));
+            waitForIdleCount(pool, 1);
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void takeReservedDriver() throws InterruptedException {
+        CountingFactory factory = new CountingFactory();
+        WebDriverPool pool = new WebDriverPool(factory, new DriverOptions(), 1, 2, 0);
+        try {
+            pool.reserve(1);
+            assertThat(pool.take(), is(notNullValue()));
+            assertThat(pool.getMissCount(), is(0));
+            waitForIdleCount(pool, 1);
+            Thread.sleep(200);
+            assertThat(factory.started.get(), is(2));
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void evictIdleDrivers() throws InterruptedException {
+        CountingFactory factory = new CountingFactory();
+        WebDriverPool pool = new WebDriverPool(factory, new DriverOptions(), 0, 1, 1);
+        try {
+            pool.take();
+            waitForIdleCount(pool, 1);
+            waitForIdleCount(pool, 0);
+            // evicted driver is quitted after it is removed from the pool.
+            long limit = System.currentTimeMillis() + 10000;
+            while (factory.quitted.get() == 0 && System.currentTimeMillis() < limit)
+                Thread.sleep(10);
+            assertThat(factory.quitted.get(), is(1));
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidSize() {
+        new WebDriverPool(new CountingFactory(), new DriverOptions(), 2, 1, 0);
+    }
+}